@@ -10,7 +10,7 @@ import javafx.scene.text.Font;
 import javafx.stage.Stage;
 import javafx.util.Duration;
 import net.protolauncher.api.ProtoLauncher;
-import net.protolauncher.api.User;
+import net.protolauncher.api.StartupOrchestrator;
 import net.protolauncher.log4j.FeedbackLoggerWrapper;
 import net.protolauncher.ui.ViewScene;
 import net.protolauncher.ui.dialog.Alert;
@@ -117,46 +117,8 @@ public class App extends Application {
             LauncherTask<Void> initializeTask = new LauncherTask<>() {
                 @Override
                 protected Void call() throws Exception {
-                    final int totalSteps = 7;
-                    int currentStep = 0;
-
-                    // Load config
-                    updateProgress(++currentStep, totalSteps);
-                    launcher.loadConfig();
-
-                    // Load version manifest
-                    updateProgress(++currentStep, totalSteps);
-                    int versionManifestStep = currentStep;
-                    launcher.loadVersionManifest((total, transferred) -> {
-                        updateProgress(versionManifestStep + (transferred / (double) total), totalSteps);
-                    });
-
-                    // Load modded version manifest
-                    updateProgress(++currentStep, totalSteps);
-                    int moddedVersionManifestStep = currentStep;
-                    launcher.loadModdedVersionManifest((total, transferred) -> {
-                        updateProgress(moddedVersionManifestStep + (transferred / (double) total), totalSteps);
-                    });
-
-                    // Load users
-                    updateProgress(++currentStep, totalSteps);
-                    launcher.loadUsers();
-
-                    // Load profiles
-                    updateProgress(++currentStep, totalSteps);
-                    launcher.loadProfiles();
-
-                    // Validate current user and check latest profiles
-                    updateProgress(++currentStep, totalSteps);
-                    User user = launcher.getCurrentUser();
-                    if (user != null) {
-                        // If we have an invalid user on launch, what do we do?
-                        boolean isValid = launcher.validateUser(user.getUuid());
-                        launcher.checkLatestProfiles(user.getUuid());
-                    }
-
-                    // Done
-                    updateProgress(++currentStep, totalSteps);
+                    // Load the config first, then everything else concurrently
+                    new StartupOrchestrator(launcher).execute(this::updateProgress);
                     return null;
                 }
             };
@@ -184,11 +146,7 @@ public class App extends Application {
                     // If this is the first launch, now that we are showing the view, we can set it to false
                     if (launcher.getConfig().isFirstLaunch()) {
                         launcher.getConfig().setFirstLaunch(false);
-                        try {
-                            launcher.saveConfig();
-                        } catch (IOException e) {
-                            this.severeInternalError(e);
-                        }
+                        launcher.saveConfig();
                     }
                 });
                 animation.play();
@@ -206,6 +164,21 @@ public class App extends Application {
         }
     }
 
+    /**
+     * Handles the shutdown of the JavaFX application, making sure every saved change is written to disk.
+     */
+    @Override
+    public void stop() {
+        if (launcher == null) {
+            return;
+        }
+        try {
+            launcher.flush();
+        } catch (IOException e) {
+            LOGGER.error("Failed to save launcher files on exit: " + e.getMessage());
+        }
+    }
+
     /**
      * Fetches the current scene from the {@link Stage} to be a {@link ViewScene}.
      * @return The {@link ViewScene} or null if the scene was not a {@link ViewScene}.
@@ -11,6 +11,7 @@ import net.protolauncher.ui.ViewScene;
 import net.protolauncher.ui.dialog.LaunchDialog;
 import net.protolauncher.ui.view.dialog.LaunchDialogView;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Objects;
 
@@ -19,6 +20,9 @@ public class AppCLI extends Application {
     // Constants
     public static final String VERSION = ProtoLauncher.getVersion();
 
+    // Variables
+    private ProtoLauncher launcher;
+
     /**
      * Handles the startup of the JavaFX application.
      */
@@ -48,15 +52,45 @@ public class AppCLI extends Application {
             } catch (Exception e) {
                 e.printStackTrace();
                 // TODO: Error popup.
-                System.exit(0);
+                this.exit();
             }
             return;
         }
 
         // Exit
+        this.exit();
+    }
+
+    /**
+     * Handles the shutdown of the JavaFX application, making sure every saved change is written to disk.
+     */
+    @Override
+    public void stop() {
+        this.flush();
+    }
+
+    /**
+     * Exits right away, making sure every saved change is written to disk first.
+     */
+    private void exit() {
+        this.flush();
         System.exit(0);
     }
 
+    /**
+     * Writes every saved change to disk, if the launcher was loaded.
+     */
+    private void flush() {
+        if (launcher == null) {
+            return;
+        }
+        try {
+            launcher.flush();
+        } catch (IOException e) {
+            System.err.println("Failed to save launcher files on exit: " + e.getMessage());
+        }
+    }
+
     /**
      * Launches the launcher using the profile given in the parameters.
      */
@@ -66,12 +100,12 @@ public class AppCLI extends Application {
             System.out.println("Params:");
             System.out.printf("%-15s %s\n", "--owner=<owner uuid>", "The UUID of the owner of the profile to launch.");
             System.out.printf("%-15s %s\n", "--uuid=<profile uuid>", "The UUID of the profile to launch.");
-            System.exit(0);
+            this.exit();
             return;
         }
 
         // Prepare ProtoLauncher
-        ProtoLauncher launcher = new ProtoLauncher();
+        launcher = new ProtoLauncher();
         launcher.loadConfig();
         launcher.loadVersionManifest((total, transferred) -> { });
         launcher.loadUsers();
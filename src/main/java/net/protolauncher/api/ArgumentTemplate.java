@@ -0,0 +1,138 @@
+package net.protolauncher.api;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Represents a list of launch arguments containing <code>${variable}</code> placeholders.
+ * <br/><br/>
+ * Every argument is tokenized once into its literal parts and the variables between them, so substituting variables
+ * is a single pass over each argument instead of a replace over the whole command for every variable. Arguments stay
+ * separate the whole way through and end up as the command list for a {@link ProcessBuilder}, so a path with spaces
+ * in it never needs quoting. Variables without a value are left as they are, so they can be substituted later on.
+ */
+public class ArgumentTemplate {
+
+    // Variables
+    private final List<Argument> arguments;
+
+    /**
+     * Constructs a new argument template.
+     *
+     * @param arguments The arguments, which may contain placeholders.
+     */
+    public ArgumentTemplate(List<String> arguments) {
+        this.arguments = new ArrayList<>(arguments.size());
+        for (String argument : arguments) {
+            this.arguments.add(Argument.parse(argument));
+        }
+    }
+
+    /**
+     * Substitutes the given variables into every argument.
+     *
+     * @param variables The value of each variable, by name (without the <code>${}</code>).
+     * @return The arguments with the variables substituted.
+     */
+    public List<String> resolve(Map<String, String> variables) {
+        List<String> resolved = new ArrayList<>(arguments.size());
+        for (Argument argument : arguments) {
+            resolved.add(argument.resolve(variables));
+        }
+        return resolved;
+    }
+
+    /**
+     * Splits a string of arguments on whitespace, keeping anything in double quotes together as one argument.
+     * Used for arguments that only come as a single string, such as the ones a user enters or legacy version arguments.
+     *
+     * @param arguments The string of arguments.
+     * @return The separate arguments, without the quotes.
+     */
+    public static List<String> split(String arguments) {
+        List<String> split = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        boolean started = false;
+        for (int i = 0; i < arguments.length(); i++) {
+            char c = arguments.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+                started = true;
+            } else if (!quoted && Character.isWhitespace(c)) {
+                if (started) {
+                    split.add(current.toString());
+                    current.setLength(0);
+                    started = false;
+                }
+            } else {
+                current.append(c);
+                started = true;
+            }
+        }
+        if (started) {
+            split.add(current.toString());
+        }
+        return split;
+    }
+
+    /**
+     * Represents a single tokenized argument: literal parts with a variable between every two of them.
+     */
+    private static class Argument {
+
+        // Variables
+        private final String[] literals;
+        private final String[] variables;
+
+        // Constructor
+        private Argument(String[] literals, String[] variables) {
+            this.literals = literals;
+            this.variables = variables;
+        }
+
+        /**
+         * Tokenizes the given argument.
+         */
+        private static Argument parse(String argument) {
+            List<String> literals = new ArrayList<>();
+            List<String> variables = new ArrayList<>();
+            int position = 0;
+            while (true) {
+                int start = argument.indexOf("${", position);
+                int end = start < 0 ? -1 : argument.indexOf('}', start + 2);
+                if (end < 0) {
+                    break;
+                }
+                literals.add(argument.substring(position, start));
+                variables.add(argument.substring(start + 2, end));
+                position = end + 1;
+            }
+            literals.add(argument.substring(position));
+            return new Argument(literals.toArray(String[]::new), variables.toArray(String[]::new));
+        }
+
+        /**
+         * Substitutes the given variables into this argument.
+         */
+        private String resolve(Map<String, String> values) {
+            if (variables.length == 0) {
+                return literals[0];
+            }
+            StringBuilder builder = new StringBuilder(literals[0]);
+            for (int i = 0; i < variables.length; i++) {
+                String value = values.get(variables[i]);
+                if (value != null) {
+                    builder.append(value);
+                } else {
+                    builder.append("${").append(variables[i]).append('}');
+                }
+                builder.append(literals[i + 1]);
+            }
+            return builder.toString();
+        }
+
+    }
+
+}
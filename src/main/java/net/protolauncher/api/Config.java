@@ -9,6 +9,8 @@ import java.net.URL;
 import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -45,11 +47,40 @@ public class Config {
      * The {@link Instant} in which the modded manifest was last updated.
      */
     private Instant lastModdedManifestUpdate;
+    /**
+     * The <code>ETag</code> the manifest was last downloaded with, used to only download it again if it changed.
+     */
+    @Since(1.0)
+    @Nullable
+    private String manifestETag;
+    /**
+     * The <code>Last-Modified</code> date the manifest was last downloaded with, used to only download it again if it changed.
+     */
+    @Since(1.0)
+    @Nullable
+    private String manifestLastModified;
+    /**
+     * The <code>ETag</code> the modded manifest was last downloaded with, used to only download it again if it changed.
+     */
+    @Since(1.0)
+    @Nullable
+    private String moddedManifestETag;
+    /**
+     * The <code>Last-Modified</code> date the modded manifest was last downloaded with, used to only download it again if it changed.
+     */
+    @Since(1.0)
+    @Nullable
+    private String moddedManifestLastModified;
     /**
      * The maximum {@link Duration} that the manifest can be in age.
      */
     @Since(1.0)
     private Duration maxManifestAge;
+    /**
+     * How long before a Microsoft login expires to refresh it in the background.
+     */
+    @Since(1.0)
+    private Duration tokenRefreshLeadTime;
     /**
      * Contains a list of endpoints used throughout the entire launcher.
      */
@@ -65,6 +96,21 @@ public class Config {
      */
     @Since(1.0)
     private boolean validate;
+    /**
+     * Whether to validate every file by reading it again, even if it was already validated on a previous launch.
+     */
+    @Since(1.0)
+    private boolean forceValidate;
+    /**
+     * The maximum amount of simultaneous downloads from a single host.
+     */
+    @Since(1.0)
+    private int maxDownloadsPerHost;
+    /**
+     * The maximum amount of attempts for a download from a single url before failing over to a mirror or giving up.
+     */
+    @Since(1.0)
+    private int maxDownloadAttempts;
     /**
      * Whether this is the first launch of the launcher or not.
      */
@@ -96,9 +142,28 @@ public class Config {
     public Instant getLastModdedManifestUpdate() {
         return lastModdedManifestUpdate;
     }
+    @Nullable
+    public String getManifestETag() {
+        return manifestETag;
+    }
+    @Nullable
+    public String getManifestLastModified() {
+        return manifestLastModified;
+    }
+    @Nullable
+    public String getModdedManifestETag() {
+        return moddedManifestETag;
+    }
+    @Nullable
+    public String getModdedManifestLastModified() {
+        return moddedManifestLastModified;
+    }
     public Duration getMaxManifestAge() {
         return maxManifestAge;
     }
+    public Duration getTokenRefreshLeadTime() {
+        return tokenRefreshLeadTime;
+    }
     public Endpoints getEndpoints() {
         return endpoints;
     }
@@ -108,6 +173,15 @@ public class Config {
     public boolean shouldValidate() {
         return validate;
     }
+    public boolean shouldForceValidate() {
+        return forceValidate;
+    }
+    public int getMaxDownloadsPerHost() {
+        return maxDownloadsPerHost;
+    }
+    public int getMaxDownloadAttempts() {
+        return maxDownloadAttempts;
+    }
     public boolean isFirstLaunch() {
         return firstLaunch;
     }
@@ -133,10 +207,30 @@ public class Config {
         this.lastModdedManifestUpdate = lastModdedManifestUpdate;
         return this;
     }
+    public Config setManifestETag(@Nullable String manifestETag) {
+        this.manifestETag = manifestETag;
+        return this;
+    }
+    public Config setManifestLastModified(@Nullable String manifestLastModified) {
+        this.manifestLastModified = manifestLastModified;
+        return this;
+    }
+    public Config setModdedManifestETag(@Nullable String moddedManifestETag) {
+        this.moddedManifestETag = moddedManifestETag;
+        return this;
+    }
+    public Config setModdedManifestLastModified(@Nullable String moddedManifestLastModified) {
+        this.moddedManifestLastModified = moddedManifestLastModified;
+        return this;
+    }
     public Config setMaxManifestAge(Duration maxManifestAge) {
         this.maxManifestAge = maxManifestAge;
         return this;
     }
+    public Config setTokenRefreshLeadTime(Duration tokenRefreshLeadTime) {
+        this.tokenRefreshLeadTime = tokenRefreshLeadTime;
+        return this;
+    }
     public Config setPrettyPrint(boolean prettyPrint) {
         this.prettyPrint = prettyPrint;
         return this;
@@ -145,6 +239,18 @@ public class Config {
         this.validate = validate;
         return this;
     }
+    public Config setForceValidate(boolean forceValidate) {
+        this.forceValidate = forceValidate;
+        return this;
+    }
+    public Config setMaxDownloadsPerHost(int maxDownloadsPerHost) {
+        this.maxDownloadsPerHost = maxDownloadsPerHost;
+        return this;
+    }
+    public Config setMaxDownloadAttempts(int maxDownloadAttempts) {
+        this.maxDownloadAttempts = maxDownloadAttempts;
+        return this;
+    }
     public Config setFirstLaunch(boolean firstLaunch) {
         this.firstLaunch = firstLaunch;
         return this;
@@ -161,10 +267,18 @@ public class Config {
         this.currentProfileUuid = null;
         this.lastManifestUpdate = Instant.MIN;
         this.lastModdedManifestUpdate = Instant.MIN;
+        this.manifestETag = null;
+        this.manifestLastModified = null;
+        this.moddedManifestETag = null;
+        this.moddedManifestLastModified = null;
         this.maxManifestAge = Duration.ofHours(12);
+        this.tokenRefreshLeadTime = Duration.ofMinutes(30);
         this.endpoints = new Endpoints();
         this.prettyPrint = false;
         this.validate = true;
+        this.forceValidate = false;
+        this.maxDownloadsPerHost = 8;
+        this.maxDownloadAttempts = 3;
         this.firstLaunch = true;
         return this;
     }
@@ -235,6 +349,11 @@ public class Config {
          */
         @Since(1.0)
         private URL java8Linux;
+        /**
+         * A list of mirrors to fail over to when a download can't be completed from its original url.
+         */
+        @Since(1.0)
+        private List<Mirror> mirrors;
 
         /**
          * Constructs new endpoints with default values.
@@ -253,6 +372,7 @@ public class Config {
                 this.java8Win64 = new URL("https://github.com/adoptium/temurin8-binaries/releases/download/jdk8u312-b07/OpenJDK8U-jre_x64_windows_hotspot_8u312b07.zip");
                 this.java8Mac = new URL("https://github.com/adoptium/temurin8-binaries/releases/download/jdk8u312-b07/OpenJDK8U-jre_x64_mac_hotspot_8u312b07.tar.gz");
                 this.java8Linux = new URL("https://github.com/adoptium/temurin8-binaries/releases/download/jdk8u312-b07/OpenJDK8U-jre_x64_linux_hotspot_8u312b07.tar.gz");
+                this.mirrors = new ArrayList<>();
             } catch (MalformedURLException e) {
                 // Somebody really screwed up if this happens.
                 e.printStackTrace();
@@ -297,6 +417,43 @@ public class Config {
         public URL getJava8Linux() {
             return java8Linux;
         }
+        public List<Mirror> getMirrors() {
+            return mirrors;
+        }
+
+        /**
+         * Represents a mirror of another endpoint. Any url starting with the base is also available
+         * from the mirror, with the base replaced by the mirror.
+         */
+        public static class Mirror {
+
+            // JSON Properties
+            /**
+             * The base url being mirrored, for example <code>https://resources.download.minecraft.net/</code>.
+             */
+            @Since(1.0)
+            private URL base;
+            /**
+             * The url that replaces the base.
+             */
+            @Since(1.0)
+            private URL mirror;
+
+            // Constructor
+            public Mirror(URL base, URL mirror) {
+                this.base = base;
+                this.mirror = mirror;
+            }
+
+            // Getters
+            public URL getBase() {
+                return base;
+            }
+            public URL getMirror() {
+                return mirror;
+            }
+
+        }
 
         /**
          * Represents the various components needed to represent the Microsoft API endpoint.
@@ -386,8 +543,12 @@ public class Config {
         // Launcher
         public static final Path LAUNCHER_FOLDER = Path.of("launcher/");
         public static final Path CACHE_FOLDER = LAUNCHER_FOLDER.resolve("cache/");
+        public static final Path VERIFICATION_JOURNAL = CACHE_FOLDER.resolve("verified.json");
+        public static final Path LAUNCH_CACHE_FOLDER = CACHE_FOLDER.resolve("launch/");
+        public static final Path SNAPSHOT_FOLDER = CACHE_FOLDER.resolve("snapshots/");
         public static final Path CONFIG = LAUNCHER_FOLDER.resolve("config.json");
         public static final Path PROFILES = LAUNCHER_FOLDER.resolve("profiles.json");
+        public static final Path PROFILE_SHARDS_FOLDER = LAUNCHER_FOLDER.resolve("profiles/");
         public static final Path USERS = LAUNCHER_FOLDER.resolve("users.json");
         public static final Path JAVA_8_FOLDER = LAUNCHER_FOLDER.resolve("runtime/jre-1.8/");
 
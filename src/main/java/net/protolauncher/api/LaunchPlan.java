@@ -0,0 +1,313 @@
+package net.protolauncher.api;
+
+import net.protolauncher.mods.version.ModdedVersionInfo;
+import net.protolauncher.mojang.asset.AssetIndex;
+import net.protolauncher.mojang.library.Library;
+import net.protolauncher.mojang.version.Version;
+import net.protolauncher.mojang.version.VersionInfo;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Represents everything that needs to happen to launch a profile, as a graph of stages.
+ * <br/><br/>
+ * Every stage only waits for the stages it actually depends on, so independent stages run at the same time:
+ * once the version is known, the client, the Java runtime, the assets and (after the mod loader) the libraries
+ * are all fetched concurrently, alongside refreshing the login of the user if it has expired. The launch itself
+ * only waits for all of them. The time it takes to launch is then the longest chain of stages rather than the sum
+ * of all of them.
+ */
+public class LaunchPlan {
+
+    // References
+    private final ProtoLauncher launcher;
+    private final User user;
+    private final Profile profile;
+    private final String launcherVersion;
+
+    /**
+     * Constructs a new launch plan.
+     *
+     * @param launcher The {@link ProtoLauncher} to launch with.
+     * @param user The {@link User} to launch as.
+     * @param profile The {@link Profile} to launch.
+     * @param launcherVersion The version of the launcher.
+     */
+    public LaunchPlan(ProtoLauncher launcher, User user, Profile profile, String launcherVersion) {
+        this.launcher = launcher;
+        this.user = user;
+        this.profile = profile;
+        this.launcherVersion = launcherVersion;
+    }
+
+    // Getters
+    public User getUser() {
+        return user;
+    }
+    public Profile getProfile() {
+        return profile;
+    }
+
+    /**
+     * Runs every stage of the plan, each as soon as the stages it depends on are done.
+     * If a cached {@link ResolvedLaunch} for the profile matches its current fingerprint, every stage but the launch
+     * itself is skipped. The cache is read on the calling thread.
+     * If any stage fails, the returned future fails with it right away; stages that are already running are left to finish,
+     * but no new stages are started.
+     *
+     * @param listener Notified as the stages start, progress, and complete. Called from the stage threads.
+     * @return A {@link CompletableFuture} for the launched game {@link Process}.
+     */
+    public CompletableFuture<Process> execute(Listener listener) {
+        AtomicInteger count = new AtomicInteger();
+        ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable);
+            thread.setName("Launch Stage #" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // The future of every stage, so stages can find their dependencies, and the future of the whole plan,
+        // which fails as soon as any stage fails rather than once everything that is still running is done
+        Map<Stage, CompletableFuture<?>> futures = new EnumMap<>(Stage.class);
+        CompletableFuture<Process> result = new CompletableFuture<>();
+
+        // If nothing changed since the last launch of this profile, skip straight to launching
+        String fingerprint = launcher.createLaunchFingerprint(profile, launcherVersion);
+        ResolvedLaunch cached = this.loadCachedLaunch(fingerprint);
+        if (cached != null) {
+            for (Stage stage : Stage.values()) {
+                if (stage != Stage.AUTHENTICATE && stage != Stage.LAUNCH) {
+                    futures.put(stage, CompletableFuture.completedFuture(null));
+                    listener.stageCompleted(stage);
+                }
+            }
+            this.authenticate(futures, result, executor, listener);
+            this.stage(futures, result, Stage.LAUNCH, executor, listener, () -> {
+                return launcher.launch(user, profile, cached);
+            }).thenAccept(result::complete);
+            result.whenComplete((process, throwable) -> executor.shutdown());
+            return result;
+        }
+
+        // The login of the user, which only holds anything up if it has expired
+        this.authenticate(futures, result, executor, listener);
+
+        // The version everything else is based on
+        CompletableFuture<Version> version = this.stage(futures, result, Stage.VERSION, executor, listener, () -> {
+            VersionInfo info = Objects.requireNonNull(launcher.getVersionManifest()).getVersion(profile.getVersion().getMinecraft());
+            return launcher.downloadVersion(Objects.requireNonNull(info), (total, transferred) -> {
+                listener.downloadProgress(Stage.VERSION, total, transferred);
+            });
+        });
+
+        // The client jar
+        CompletableFuture<Void> client = this.stage(futures, result, Stage.CLIENT, executor, listener, () -> {
+            launcher.downloadVersionClient(version.join(), (total, transferred) -> {
+                listener.downloadProgress(Stage.CLIENT, total, transferred);
+            });
+            return null;
+        });
+
+        // The mod loader, if there is one
+        CompletableFuture<Version> modded = this.stage(futures, result, Stage.MOD_LOADER, executor, listener, () -> {
+            Profile.Version pv = profile.getVersion();
+            if (pv.getModdedType() == null) {
+                return version.join();
+            }
+            ModdedVersionInfo mvi = Objects.requireNonNull(launcher.getModdedVersionManifest()).getVersion(pv.getModdedType(), pv.getMinecraft(), pv.getModded());
+            if (mvi == null) {
+                throw new IOException("The requested modded version info does not exist in the modded version manifest!");
+            }
+            return launcher.injectModLoader(version.join(), mvi, (totalSteps, currentStep) -> {
+                listener.stepProgress(Stage.MOD_LOADER, totalSteps, currentStep);
+            }, (total, transferred) -> {
+                listener.downloadProgress(Stage.MOD_LOADER, total, transferred);
+            });
+        });
+
+        // Legacy Java, only for versions that need it
+        CompletableFuture<Path> java = this.stage(futures, result, Stage.JAVA, executor, listener, () -> {
+            if (!version.join().getAssets().equals("pre-1.6")) {
+                return null;
+            }
+            return launcher.downloadJava((totalSteps, currentStep) -> {
+                listener.stepProgress(Stage.JAVA, totalSteps, currentStep);
+            }, (total, transferred) -> {
+                listener.downloadProgress(Stage.JAVA, total, transferred);
+            });
+        });
+
+        // Libraries, which can be changed by the mod loader
+        CompletableFuture<List<Library>> libraries = this.stage(futures, result, Stage.LIBRARIES, executor, listener, () -> {
+            return launcher.downloadLibraries(modded.join(), (totalSteps, currentStep) -> {
+                listener.stepProgress(Stage.LIBRARIES, totalSteps, currentStep);
+            }, info -> {
+                listener.stepInfo(Stage.LIBRARIES, info);
+            }, (total, transferred) -> {
+                listener.downloadProgress(Stage.LIBRARIES, total, transferred);
+            });
+        });
+
+        // Assets
+        CompletableFuture<AssetIndex> assets = this.stage(futures, result, Stage.ASSETS, executor, listener, () -> {
+            return launcher.downloadAssets(version.join(), Path.of(profile.getPath()), (totalSteps, currentStep) -> {
+                listener.stepProgress(Stage.ASSETS, totalSteps, currentStep);
+            }, info -> {
+                listener.stepInfo(Stage.ASSETS, info);
+            }, (total, transferred) -> {
+                listener.downloadProgress(Stage.ASSETS, total, transferred);
+            });
+        });
+
+        // Launch once everything is ready, caching what was resolved for next time
+        CompletableFuture<Process> launch = this.stage(futures, result, Stage.LAUNCH, executor, listener, () -> {
+            ResolvedLaunch resolved = launcher.resolveLaunch(profile, modded.join(), libraries.join(), assets.join(), java.join(), launcherVersion, fingerprint != null ? fingerprint : "");
+            if (fingerprint != null) {
+                launcher.saveResolvedLaunch(profile, resolved);
+            }
+            return launcher.launch(user, profile, resolved);
+        });
+
+        // Let the stage threads go once the plan is done
+        launch.thenAccept(result::complete);
+        result.whenComplete((process, throwable) -> executor.shutdown());
+        return result;
+    }
+
+    /**
+     * Creates the stage that makes sure the login of the user can be launched with.
+     * @see UserValidationService#awaitUsable(User)
+     */
+    private void authenticate(Map<Stage, CompletableFuture<?>> futures, CompletableFuture<Process> result, Executor executor, Listener listener) {
+        this.stage(futures, result, Stage.AUTHENTICATE, executor, listener, () -> {
+            launcher.getUserValidation().awaitUsable(user);
+            return null;
+        });
+    }
+
+    /**
+     * Loads the cached {@link ResolvedLaunch} for the profile if it matches the given fingerprint.
+     * The cache is only an optimization, so failing to read it just means launching the long way.
+     */
+    @Nullable
+    private ResolvedLaunch loadCachedLaunch(@Nullable String fingerprint) {
+        if (fingerprint == null) {
+            return null;
+        }
+        try {
+            return launcher.loadResolvedLaunch(profile, fingerprint);
+        } catch (IOException e) {
+            launcher.getLoggerWrapper().warn("Unable to read the cached launch for " + profile.getName() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Creates the future for a single stage, which runs once the futures of all of its dependencies are complete.
+     * If a dependency fails, the stage fails with the same cause without running.
+     * If the stage itself fails, the result of the plan fails with it.
+     */
+    private <T> CompletableFuture<T> stage(Map<Stage, CompletableFuture<?>> futures, CompletableFuture<Process> result, Stage stage, Executor executor, Listener listener, StageAction<T> action) {
+        CompletableFuture<?>[] dependencies = stage.getDependencies().stream().map(futures::get).toArray(CompletableFuture[]::new);
+        CompletableFuture<T> future = CompletableFuture.allOf(dependencies).thenApplyAsync(ignored -> {
+            if (result.isCompletedExceptionally()) {
+                throw new CancellationException("Another stage of the launch failed.");
+            }
+            listener.stageStarted(stage);
+            try {
+                T value = action.run();
+                listener.stageCompleted(stage);
+                return value;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+        future.exceptionally(throwable -> {
+            result.completeExceptionally(unwrap(throwable));
+            return null;
+        });
+        futures.put(stage, future);
+        return future;
+    }
+
+    /**
+     * Unwraps the given throwable from a failed plan into the exception that caused it.
+     *
+     * @param throwable The throwable the plan failed with.
+     * @return The cause of the failure.
+     */
+    public static Throwable unwrap(Throwable throwable) {
+        while ((throwable instanceof CompletionException || throwable instanceof ExecutionException) && throwable.getCause() != null) {
+            throwable = throwable.getCause();
+        }
+        return throwable;
+    }
+
+    /**
+     * Represents a single stage of the launch and the stages it depends on.
+     */
+    public enum Stage {
+        AUTHENTICATE("Authenticate"),
+        VERSION("Fetch Version"),
+        CLIENT("Download Client", VERSION),
+        MOD_LOADER("Inject Mod Loader", VERSION),
+        JAVA("Download Java (if necessary)", VERSION),
+        LIBRARIES("Download Libraries", MOD_LOADER),
+        ASSETS("Download Assets", VERSION),
+        LAUNCH("Launch", AUTHENTICATE, CLIENT, MOD_LOADER, JAVA, LIBRARIES, ASSETS);
+
+        // Variables
+        private final String title;
+        private final Set<Stage> dependencies;
+
+        // Constructor
+        Stage(String title, Stage... dependencies) {
+            this.title = title;
+            this.dependencies = dependencies.length == 0 ? EnumSet.noneOf(Stage.class) : EnumSet.of(dependencies[0], dependencies);
+        }
+
+        // Getters
+        public String getTitle() {
+            return title;
+        }
+        public Set<Stage> getDependencies() {
+            return dependencies;
+        }
+    }
+
+    /**
+     * Listens to the progress of a {@link LaunchPlan}. Every method is called from the thread running the stage,
+     * and stages run concurrently, so implementations must be thread safe.
+     */
+    public interface Listener {
+
+        void stageStarted(Stage stage);
+
+        void stageCompleted(Stage stage);
+
+        default void stepProgress(Stage stage, int totalSteps, int currentStep) { }
+
+        default void stepInfo(Stage stage, String info) { }
+
+        default void downloadProgress(Stage stage, long total, long transferred) { }
+
+    }
+
+    /**
+     * The work done by a single stage.
+     */
+    @FunctionalInterface
+    private interface StageAction<T> {
+
+        @Nullable
+        T run() throws Exception;
+
+    }
+
+}
@@ -0,0 +1,195 @@
+package net.protolauncher.api;
+
+import net.protolauncher.log4j.FeedbackLoggerWrapper;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Writes the launcher's files (the config, users and profiles) in the background, coalescing saves that come close together.
+ * <br/><br/>
+ * Saving a file serializes it right away on the calling thread, the same thread that just changed it, and marks it
+ * as dirty. The first save after a write schedules the next one a debounce window later on a background writer, which
+ * then writes the latest contents of every file that is dirty by then exactly once, so a chain of saves (like
+ * switching users, which saves the config twice) only costs a single write. Files are written through a
+ * {@link SafeFileStore}, so a file is never left half written. Anything that needs the files to be on disk,
+ * like launching or exiting, calls {@link PersistenceService#flush()} first.
+ */
+public class PersistenceService {
+
+    // References
+    private final FeedbackLoggerWrapper logger;
+
+    // Variables
+    private final Duration debounce;
+    private final Map<String, Store> stores = new LinkedHashMap<>();
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService writer;
+    private final Object writeLock = new Object();
+    private ScheduledFuture<?> pending;
+
+    /**
+     * Constructs a new persistence service.
+     *
+     * @param logger The logger to report failed background writes to.
+     * @param debounce How long to wait after a save before writing, to catch any saves that follow it.
+     */
+    public PersistenceService(FeedbackLoggerWrapper logger, Duration debounce) {
+        this.logger = logger;
+        this.debounce = debounce;
+        AtomicInteger count = new AtomicInteger();
+        this.writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable);
+            thread.setName("Persistence Writer #" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Getters
+    public Duration getDebounce() {
+        return debounce;
+    }
+
+    /**
+     * Registers a file that can be saved. Every file should be registered before anything is saved.
+     *
+     * @param name The name of the file, used to save it.
+     * @param store The store to write the file through.
+     * @param serializer Creates the contents of the file at the time it is written.
+     */
+    public synchronized void register(String name, SafeFileStore store, Serializer serializer) {
+        stores.put(name, new Store(store, serializer));
+    }
+
+    /**
+     * Serializes the file with the given name and marks it as dirty, so it will be written in the background soon.
+     *
+     * @param name The name of the file.
+     * @throws IllegalArgumentException Thrown if no file is registered with the given name.
+     */
+    public void save(String name) {
+        Store store;
+        synchronized (this) {
+            store = stores.get(name);
+        }
+        if (store == null) {
+            throw new IllegalArgumentException("No file registered as " + name);
+        }
+
+        // Serialize outside the service's monitor, as serializers may take locks of their own
+        store.capture();
+        synchronized (this) {
+            dirty.add(name);
+            if (pending == null) {
+                pending = writer.schedule(this::writeInBackground, debounce.toMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Writes every dirty file right away on the calling thread, waiting for any background write that is in progress.
+     * Once this returns, every save made before it was called is on disk.
+     *
+     * @throws IOException Thrown if writing any of the files fails. Every other file is still written.
+     */
+    public void flush() throws IOException {
+        synchronized (writeLock) {
+            IOException failure = null;
+            for (Map.Entry<String, Store> entry : this.getStores().entrySet()) {
+                if (!dirty.remove(entry.getKey())) {
+                    continue;
+                }
+                try {
+                    entry.getValue().write();
+                } catch (IOException | RuntimeException e) {
+                    // Keep it dirty so the next write tries again
+                    dirty.add(entry.getKey());
+                    IOException exception = e instanceof IOException io ? io : new IOException("Unable to save " + entry.getKey(), e);
+                    if (failure == null) {
+                        failure = exception;
+                    } else {
+                        failure.addSuppressed(exception);
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    /**
+     * Flushes on the background writer, logging it if it fails.
+     * The pending write is cleared before flushing, so a save made while this is writing schedules another write.
+     */
+    private void writeInBackground() {
+        synchronized (this) {
+            pending = null;
+        }
+        try {
+            this.flush();
+        } catch (IOException e) {
+            logger.warn("Unable to save launcher files: " + e.getMessage());
+        }
+    }
+
+    // Gets a copy of the registered stores.
+    private synchronized Map<String, Store> getStores() {
+        return new LinkedHashMap<>(stores);
+    }
+
+    /**
+     * Creates the contents of a file. Called on the thread that saves the file.
+     */
+    @FunctionalInterface
+    public interface Serializer {
+        String serialize();
+    }
+
+    /**
+     * Represents a single registered file.
+     */
+    private static class Store {
+
+        // Variables
+        private final SafeFileStore store;
+        private final Serializer serializer;
+        @Nullable
+        private String contents;
+
+        // Constructor
+        private Store(SafeFileStore store, Serializer serializer) {
+            this.store = store;
+            this.serializer = serializer;
+        }
+
+        /**
+         * Serializes the file as it is right now, replacing any contents that haven't been written yet.
+         */
+        private synchronized void capture() {
+            contents = serializer.serialize();
+        }
+
+        /**
+         * Writes the latest serialized contents of the file.
+         */
+        private void write() throws IOException {
+            String latest;
+            synchronized (this) {
+                latest = contents;
+            }
+            if (latest != null) {
+                store.write(latest);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,317 @@
+package net.protolauncher.api;
+
+import com.google.gson.reflect.TypeToken;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Stores the profiles of every user, one file (a "shard") per owner, so only the profiles that are needed get loaded
+ * and only the profiles that changed get written.
+ * <br/><br/>
+ * Next to the shards is a small index of every owner with how many profiles they have and whether any of them are
+ * global. On load, only the index, the shards of owners with global profiles (as those are shown to everyone) and the
+ * shard of the current user are read; every other shard is read the first time it is asked for, like when switching
+ * to its user. Saving an owner's profiles only writes their shard, and the index if it changed. Profiles stored in the
+ * old single <code>profiles.json</code> are moved into shards whenever that file is still there when loading; the
+ * shards are written before the index, and the old file is only moved out of the way once both are on disk, so a
+ * migration that is cut short is simply done again.
+ */
+public class ProfileStore {
+
+    // Constants
+    private static final Type SHARD_TYPE = new TypeToken<ArrayList<Profile>>() { }.getType();
+    private static final Type INDEX_TYPE = new TypeToken<LinkedHashMap<String, IndexEntry>>() { }.getType();
+    private static final Type LEGACY_TYPE = new TypeToken<HashMap<String, List<Profile>>>() { }.getType();
+    private static final String INDEX_STORE = "profile index";
+    private static final String SHARD_STORE_PREFIX = "profiles of ";
+    private static final int GENERATIONS = 3;
+
+    // References
+    private final ProtoLauncher launcher;
+    private final PersistenceService persistence;
+
+    // Variables
+    private final Path folder;
+    private final Path legacyFile;
+    private final Consumer<List<Profile>> shardLoaded;
+    private final SafeFileStore indexStore;
+    private final Map<String, IndexEntry> index = new LinkedHashMap<>();
+    private final Map<String, List<Profile>> shards = new HashMap<>();
+    private final Map<String, SafeFileStore> shardStores = new HashMap<>();
+
+    /**
+     * Constructs a new profile store.
+     *
+     * @param launcher The {@link ProtoLauncher} the profiles belong to.
+     * @param persistence The {@link PersistenceService} to write the shards and index through.
+     * @param folder The folder the shards and index are stored in.
+     * @param legacyFile The old single profiles file to move profiles out of.
+     * @param shardLoaded Called with the profiles of every shard that is loaded.
+     */
+    public ProfileStore(ProtoLauncher launcher, PersistenceService persistence, Path folder, Path legacyFile, Consumer<List<Profile>> shardLoaded) {
+        this.launcher = launcher;
+        this.persistence = persistence;
+        this.folder = folder;
+        this.legacyFile = legacyFile;
+        this.shardLoaded = shardLoaded;
+        this.indexStore = new SafeFileStore(launcher.getLoggerWrapper(), folder.resolve("index.json"), GENERATIONS);
+        persistence.register(INDEX_STORE, indexStore, () -> {
+            synchronized (this) {
+                return launcher.getGson().toJson(index, INDEX_TYPE);
+            }
+        });
+    }
+
+    // Getters
+    public Path getFolder() {
+        return folder;
+    }
+
+    /**
+     * Loads the index along with the shards of every owner with global profiles and the shard of the given owner,
+     * moving the profiles in the old single profiles file into shards if it is still there.
+     *
+     * @param currentOwner The owner whose shard to load right away, usually the current user.
+     * @throws IOException Thrown if reading the index or any of the shards fails.
+     */
+    public void load(@Nullable String currentOwner) throws IOException {
+        // Read the index, or create it, moving the old profiles file into shards if it is still there
+        // (it is only ever moved out of the way once a migration has finished, so it may be there next to an index)
+        boolean migrating;
+        synchronized (this) {
+            index.clear();
+            shards.clear();
+            Map<String, IndexEntry> loaded = indexStore.read(reader -> launcher.getGson().fromJson(reader, INDEX_TYPE));
+            if (loaded != null) {
+                index.putAll(loaded);
+            }
+            migrating = Files.exists(legacyFile, LinkOption.NOFOLLOW_LINKS);
+            if (migrating) {
+                this.migrate();
+            } else if (loaded == null) {
+                persistence.save(INDEX_STORE);
+            }
+        }
+
+        // Write the migrated shards first and only then the index, so the index never lists a shard that isn't
+        // on disk, and only then move the old file out of the way
+        if (migrating) {
+            persistence.flush();
+            persistence.save(INDEX_STORE);
+            persistence.flush();
+            Files.move(legacyFile, legacyFile.resolveSibling(legacyFile.getFileName() + ".migrated"), StandardCopyOption.REPLACE_EXISTING);
+            launcher.getLoggerWrapper().info("Profiles moved.");
+        }
+
+        // Load the shards everyone needs, dropping any others that were loaded to migrate them
+        synchronized (this) {
+            shards.clear();
+            for (Map.Entry<String, IndexEntry> entry : index.entrySet()) {
+                if (entry.getValue().global) {
+                    this.loadShard(entry.getKey());
+                }
+            }
+            if (currentOwner != null) {
+                this.loadShard(currentOwner);
+            }
+        }
+    }
+
+    /**
+     * Gets the profiles of the given owner, loading their shard if it hasn't been loaded yet.
+     *
+     * @param owner The UUID of the owner.
+     * @return The owner's profiles, or null if they have none.
+     * @throws UncheckedIOException Thrown if the owner's shard exists but can't be read.
+     */
+    @Nullable
+    public synchronized List<Profile> get(String owner) {
+        try {
+            return this.loadShard(owner);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Sets the profiles of the given owner and saves their shard.
+     *
+     * @param owner The UUID of the owner.
+     * @param profiles The owner's profiles.
+     */
+    public synchronized void put(String owner, List<Profile> profiles) {
+        shards.put(owner, profiles);
+        this.save(owner);
+    }
+
+    /**
+     * Removes every profile of the given owner and saves their (now empty) shard.
+     *
+     * @param owner The UUID of the owner.
+     */
+    public synchronized void remove(String owner) {
+        shards.remove(owner);
+        this.save(owner);
+    }
+
+    /**
+     * Saves the shard of the given owner after their profiles were changed, along with the index if it changed too.
+     *
+     * @param owner The UUID of the owner.
+     */
+    public synchronized void save(String owner) {
+        if (this.updateIndex(owner)) {
+            persistence.save(INDEX_STORE);
+        }
+        this.saveShard(owner);
+    }
+
+    /**
+     * Saves the shard of every owner that is loaded.
+     */
+    public synchronized void saveAll() {
+        for (String owner : new ArrayList<>(shards.keySet())) {
+            this.save(owner);
+        }
+    }
+
+    /**
+     * Gets the total amount of profiles across every owner, whether their shard is loaded or not.
+     *
+     * @return The amount of profiles.
+     */
+    public synchronized int getProfileCount() {
+        int count = 0;
+        for (IndexEntry entry : index.values()) {
+            count += entry.count;
+        }
+        return count;
+    }
+
+    /**
+     * Loads the shard of the given owner if it is in the index and hasn't been loaded yet.
+     */
+    @Nullable
+    private List<Profile> loadShard(String owner) throws IOException {
+        List<Profile> profiles = shards.get(owner);
+        if (profiles != null || !index.containsKey(owner)) {
+            return profiles;
+        }
+        SafeFileStore store = this.register(owner);
+        profiles = store.read(reader -> launcher.getGson().<ArrayList<Profile>>fromJson(reader, SHARD_TYPE));
+        if (profiles == null) {
+            // The index says there should be a shard, but there isn't, so fix the index
+            index.remove(owner);
+            persistence.save(INDEX_STORE);
+            return null;
+        }
+        shards.put(owner, profiles);
+        shardLoaded.accept(profiles);
+        return profiles;
+    }
+
+    /**
+     * Updates the index entry of the given owner from their loaded profiles.
+     *
+     * @return <code>true</code> if the entry changed, otherwise <code>false</code>.
+     */
+    private boolean updateIndex(String owner) {
+        List<Profile> profiles = shards.get(owner);
+        IndexEntry entry = profiles == null || profiles.isEmpty() ? null : new IndexEntry(profiles);
+        IndexEntry previous = entry == null ? index.remove(owner) : index.put(owner, entry);
+        return !Objects.equals(entry, previous);
+    }
+
+    /**
+     * Saves the shard of the given owner, without touching the index.
+     */
+    private void saveShard(String owner) {
+        this.register(owner);
+        persistence.save(SHARD_STORE_PREFIX + owner);
+    }
+
+    /**
+     * Registers the shard of the given owner with the persistence service if it hasn't been already.
+     */
+    private SafeFileStore register(String owner) {
+        SafeFileStore store = shardStores.get(owner);
+        if (store == null) {
+            store = new SafeFileStore(launcher.getLoggerWrapper(), folder.resolve(owner + ".json"), GENERATIONS);
+            shardStores.put(owner, store);
+            persistence.register(SHARD_STORE_PREFIX + owner, store, () -> {
+                synchronized (this) {
+                    List<Profile> profiles = shards.get(owner);
+                    return launcher.getGson().toJson(profiles != null ? profiles : List.of(), SHARD_TYPE);
+                }
+            });
+        }
+        return store;
+    }
+
+    /**
+     * Moves every profile in the old single profiles file into shards, saving the shards and updating the index
+     * without saving it yet. The index is only saved, and the old file only moved out of the way, once the shards
+     * are on disk, see {@link ProfileStore#load(String)}.
+     */
+    private void migrate() throws IOException {
+        launcher.getLoggerWrapper().info("Moving profiles into one file per user...");
+        SafeFileStore legacyStore = new SafeFileStore(launcher.getLoggerWrapper(), legacyFile, GENERATIONS);
+        Map<String, List<Profile>> legacy = legacyStore.read(reader -> launcher.getGson().fromJson(reader, LEGACY_TYPE));
+        if (legacy != null) {
+            for (Map.Entry<String, List<Profile>> entry : legacy.entrySet()) {
+                if (entry.getValue() == null) {
+                    continue;
+                }
+                shards.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+                this.updateIndex(entry.getKey());
+                this.saveShard(entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * Represents what the index knows about the profiles of a single owner.
+     */
+    private static class IndexEntry {
+
+        // JSON Properties
+        private int count;
+        private boolean global;
+
+        // Suppress default constructor
+        private IndexEntry() { }
+
+        // Constructor
+        private IndexEntry(List<Profile> profiles) {
+            this.count = profiles.size();
+            this.global = profiles.stream().anyMatch(profile -> profile.getProfileSettings().isGlobal());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof IndexEntry other)) {
+                return false;
+            }
+            return count == other.count && global == other.global;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(count, global);
+        }
+
+    }
+
+}
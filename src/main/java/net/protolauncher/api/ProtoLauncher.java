@@ -4,10 +4,15 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
 import com.google.gson.reflect.TypeToken;
 import net.protolauncher.api.Config.Endpoints;
 import net.protolauncher.api.Config.FileLocation;
 import net.protolauncher.api.User.MicrosoftInfo;
+import net.protolauncher.api.download.DownloadScheduler;
+import net.protolauncher.api.download.DownloadTask;
+import net.protolauncher.api.download.RetryPolicy;
+import net.protolauncher.api.download.VerificationJournal;
 import net.protolauncher.api.function.DownloadProgressConsumer;
 import net.protolauncher.api.function.StepInfoConsumer;
 import net.protolauncher.api.function.StepProgressConsumer;
@@ -18,12 +23,12 @@ import net.protolauncher.mods.version.ModdedVersionInfo;
 import net.protolauncher.mods.version.ModdedVersionManifest;
 import net.protolauncher.mods.version.ModdedVersionType;
 import net.protolauncher.mojang.Artifact;
-import net.protolauncher.mojang.asset.Asset;
 import net.protolauncher.mojang.asset.AssetIndex;
+import net.protolauncher.mojang.asset.AssetObjects;
 import net.protolauncher.mojang.auth.MicrosoftAuth;
 import net.protolauncher.mojang.auth.MicrosoftAuth.MicrosoftResponse;
-import net.protolauncher.mojang.auth.MicrosoftAuth.MinecraftResponse;
-import net.protolauncher.mojang.auth.MicrosoftAuth.XboxLiveResponse;
+import net.protolauncher.mojang.auth.MicrosoftTokenCache;
+import net.protolauncher.mojang.auth.MicrosoftTokenCache.Hop;
 import net.protolauncher.mojang.auth.MojangAPI;
 import net.protolauncher.mojang.auth.Yggdrasil;
 import net.protolauncher.mojang.library.Library;
@@ -33,7 +38,9 @@ import net.protolauncher.mojang.version.Version;
 import net.protolauncher.mojang.version.VersionInfo;
 import net.protolauncher.mojang.version.VersionManifest;
 import net.protolauncher.mojang.version.VersionType;
+import net.protolauncher.util.Materializer;
 import net.protolauncher.util.Network;
+import net.protolauncher.util.RateLimiter;
 import net.protolauncher.util.SystemInfo;
 import net.protolauncher.util.Validation;
 import org.apache.commons.compress.archivers.ArchiveEntry;
@@ -43,17 +50,25 @@ import org.apache.commons.compress.archivers.ArchiveStreamFactory;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.net.http.HttpHeaders;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
+import java.security.MessageDigest;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
-import java.util.stream.Collectors;
 import java.util.zip.GZIPInputStream;
 
 /**
@@ -61,6 +76,14 @@ import java.util.zip.GZIPInputStream;
  */
 public class ProtoLauncher {
 
+    // Constants
+    private static final String SNAPSHOT_VERSIONS = "versions";
+    private static final String SNAPSHOT_ASSET_INDEXES = "asset_indexes";
+    private static final Duration SAVE_DEBOUNCE = Duration.ofMillis(250);
+    private static final String STORE_CONFIG = "config";
+    private static final String STORE_USERS = "users";
+    private static final int STORE_GENERATIONS = 3;
+
     // Logging
     private final FeedbackLoggerWrapper logger;
 
@@ -68,17 +91,39 @@ public class ProtoLauncher {
     private Gson gson;
     private Config config;
     private List<User> users;
-    private HashMap<String, List<Profile>> profiles;
+    private final Object usersLock = new Object(); // Guards the users list, which is saved from background threads
+
+    // Index Variables
+    private final Map<String, User> usersByUuid = new ConcurrentHashMap<>();
+    private final Map<String, Profile> profilesByUuid = new ConcurrentHashMap<>();
+    private final Map<String, Profile> globalProfiles = Collections.synchronizedMap(new LinkedHashMap<>());
 
     // Mojang Variables
     @Nullable
-    private VersionManifest versionManifest;
+    private volatile VersionManifest versionManifest;
     @Nullable
-    private ModdedVersionManifest moddedVersionManifest;
+    private volatile ModdedVersionManifest moddedVersionManifest;
     private MojangAPI mojangApi;
     private Yggdrasil yggdrasil;
     private MicrosoftAuth microsoftAuth;
 
+    // Download Variables
+    private DownloadScheduler downloadScheduler;
+    private VerificationJournal verificationJournal;
+    private SnapshotCache snapshotCache;
+    private final Object nativesLock = new Object();
+
+    // Background Variables
+    private final ExecutorService backgroundExecutor;
+    private final Object versionManifestLock = new Object();
+    private final Object moddedVersionManifestLock = new Object();
+    private final UserValidationService userValidation;
+    private final TokenRefreshScheduler tokenRefreshScheduler;
+    private final SafeFileStore configStore;
+    private final SafeFileStore usersStore;
+    private final PersistenceService persistence;
+    private final ProfileStore profileStore;
+
     /**
      * Constructs a new ProtoLauncher API as well as the GSON builder for it.
      */
@@ -103,9 +148,8 @@ public class ProtoLauncher {
         // Create new configuration
         config = new Config();
 
-        // Prepare the lists
+        // Prepare the list
         users = new ArrayList<>();
-        profiles = new HashMap<>();
 
         // Prepare mojang api
         mojangApi = new MojangAPI(gson, config.getEndpoints().getMojangApi().toString(), config.getEndpoints().getMinecraftServicesApi().toString());
@@ -125,6 +169,43 @@ public class ProtoLauncher {
             microsoftApiEndpoints.getXstsUrl().toString(),
             config.getEndpoints().getMinecraftServicesApi().toString()
         );
+
+        // Prepare download scheduler
+        verificationJournal = new VerificationJournal(FileLocation.VERIFICATION_JOURNAL);
+        RetryPolicy retryPolicy = new RetryPolicy(config.getMaxDownloadAttempts(), config.getEndpoints().getMirrors());
+        downloadScheduler = new DownloadScheduler(config.getMaxDownloadsPerHost(), retryPolicy, verificationJournal);
+        snapshotCache = new SnapshotCache(FileLocation.SNAPSHOT_FOLDER);
+
+        // Prepare background executor
+        AtomicInteger backgroundCount = new AtomicInteger();
+        backgroundExecutor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable);
+            thread.setName("Background Task #" + backgroundCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // Prepare user validation and token refreshing
+        microsoftAuth.setRateLimiter(new RateLimiter(Duration.ofMillis(250)));
+        userValidation = new UserValidationService(this, backgroundExecutor);
+        tokenRefreshScheduler = new TokenRefreshScheduler(this, config.getTokenRefreshLeadTime());
+
+        // Prepare persistence; the files are serialized by whichever thread saves them, right after changing them,
+        // under the same lock the files used to be saved under
+        configStore = new SafeFileStore(logger, FileLocation.CONFIG, STORE_GENERATIONS);
+        usersStore = new SafeFileStore(logger, FileLocation.USERS, STORE_GENERATIONS);
+        persistence = new PersistenceService(logger, SAVE_DEBOUNCE);
+        persistence.register(STORE_CONFIG, configStore, () -> {
+            synchronized (this) {
+                return gson.toJson(config);
+            }
+        });
+        persistence.register(STORE_USERS, usersStore, () -> {
+            synchronized (usersLock) {
+                return gson.toJson(users);
+            }
+        });
+        profileStore = new ProfileStore(this, persistence, FileLocation.PROFILE_SHARDS_FOLDER, FileLocation.PROFILES, this::indexProfiles);
         logger.debug("ProtoLauncher API ready.");
     }
 
@@ -152,6 +233,18 @@ public class ProtoLauncher {
     public MicrosoftAuth getMicrosoftAuth() {
         return microsoftAuth;
     }
+    public DownloadScheduler getDownloadScheduler() {
+        return downloadScheduler;
+    }
+    public VerificationJournal getVerificationJournal() {
+        return verificationJournal;
+    }
+    public UserValidationService getUserValidation() {
+        return userValidation;
+    }
+    public TokenRefreshScheduler getTokenRefreshScheduler() {
+        return tokenRefreshScheduler;
+    }
 
     /**
      * Loads the {@link Config}, creating a new one if one does not already exist.
@@ -163,13 +256,14 @@ public class ProtoLauncher {
         Path path = FileLocation.CONFIG;
 
         // Check if one exists, and if not, generate a new one
-        if (!Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+        Config loaded = configStore.read(reader -> gson.fromJson(reader, Config.class));
+        if (loaded == null) {
             if (path.getParent() != null) {
                 Files.createDirectories(path.getParent());
             }
             this.saveConfig();
         } else {
-            config = gson.fromJson(Files.newBufferedReader(path), Config.class);
+            config = loaded;
         }
 
         // Apply gson configuration values
@@ -199,19 +293,23 @@ public class ProtoLauncher {
         microsoftAuth.setXblUrl(microsoftApiEndpoints.getXblUrl().toString());
         microsoftAuth.setXstsUrl(microsoftApiEndpoints.getXstsUrl().toString());
         microsoftAuth.setMcsUrl(config.getEndpoints().getMinecraftServicesApi().toString());
+
+        // Update Download Scheduler
+        downloadScheduler.setWorkersPerHost(config.getMaxDownloadsPerHost());
+        downloadScheduler.setRetryPolicy(new RetryPolicy(config.getMaxDownloadAttempts(), config.getEndpoints().getMirrors()));
+        verificationJournal.setForced(config.shouldForceValidate());
+
+        // Update Token Refresh Scheduler
+        tokenRefreshScheduler.setLeadTime(config.getTokenRefreshLeadTime());
         logger.debug("Configuration loaded.");
     }
 
     /**
      * Saves the configuration, presumably after somebody's changed it.
-     *
-     * @throws IOException Thrown if saving the configuration goes horribly wrong.
+     * The configuration is written in the background shortly after, see {@link PersistenceService}.
      */
-    public void saveConfig() throws IOException {
-        logger.debug("Saving configuration...");
-        Path path = FileLocation.CONFIG;
-        Files.writeString(path, gson.toJson(config), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE, LinkOption.NOFOLLOW_LINKS);
-        logger.debug("Configuration saved.");
+    public void saveConfig() {
+        persistence.save(STORE_CONFIG);
     }
 
     /**
@@ -224,27 +322,40 @@ public class ProtoLauncher {
         Path path = FileLocation.USERS;
 
         // Check if it exists, and if not, make a new list
-        if (!Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+        List<User> loaded = usersStore.read(reader -> gson.fromJson(reader, new TypeToken<List<User>>() { }.getType()));
+        if (loaded == null) {
             if (path.getParent() != null) {
                 Files.createDirectories(path.getParent());
             }
             this.saveUsers();
         } else {
-            users = gson.fromJson(Files.newBufferedReader(path), new TypeToken<List<User>>() { }.getType());
+            synchronized (usersLock) {
+                users = loaded;
+            }
         }
+        this.indexUsers();
+
+        // Logins stored before the expiry was calculated in seconds expire days after they really do, as a Minecraft
+        // token never lasts more than a day; treat them as expired so they are refreshed right away
+        long maxExpires = System.currentTimeMillis() + Duration.ofDays(1).toMillis();
+        for (User user : this.getAllUsers()) {
+            MicrosoftInfo mci = user.getMicrosoftInfo();
+            if (mci != null && mci.getDateExpires() > maxExpires) {
+                mci.setDateExpires(0);
+            }
+        }
+
+        // Keep their logins fresh
+        tokenRefreshScheduler.scheduleAll();
         logger.debug("Users loaded.");
     }
 
     /**
      * Saves the users list, presumably after somebody's changed it.
-     *
-     * @throws IOException Thrown if saving the users list goes horribly wrong.
+     * The users list is written in the background shortly after, see {@link PersistenceService}.
      */
-    public void saveUsers() throws IOException {
-        logger.debug("Saving users...");
-        Path path = FileLocation.USERS;
-        Files.writeString(path, gson.toJson(users), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE, LinkOption.NOFOLLOW_LINKS);
-        logger.debug("Users saved.");
+    public void saveUsers() {
+        persistence.save(STORE_USERS);
     }
 
     /**
@@ -252,7 +363,9 @@ public class ProtoLauncher {
      * @return The size of the user's array.
      */
     public int getUserCount() {
-        return users.size();
+        synchronized (usersLock) {
+            return users.size();
+        }
     }
 
     /**
@@ -262,7 +375,7 @@ public class ProtoLauncher {
      */
     @Nullable
     public User getUser(String uuid) {
-        return users.stream().filter(user -> user.getUuid().equals(uuid)).findFirst().orElse(null);
+        return usersByUuid.get(uuid);
     }
 
     /**
@@ -280,11 +393,13 @@ public class ProtoLauncher {
     }
 
     /**
-     * Returns the entire list of users.
-     * @return The entire list of users.
+     * Returns a copy of the entire list of users, as the list itself may be changed and saved by other threads.
+     * @return A copy of the entire list of users.
      */
     public List<User> getAllUsers() {
-        return users;
+        synchronized (usersLock) {
+            return new ArrayList<>(users);
+        }
     }
 
     /**
@@ -306,14 +421,19 @@ public class ProtoLauncher {
             existing.setAccessToken(user.getAccessToken());
             logger.debug("User " + existing.getUsername() + " (" + existing.getUuid() + ") already exists and has been updated.");
             this.saveUsers();
+            tokenRefreshScheduler.schedule(existing);
             this.switchUser(null);
             this.switchUser(existing);
             return;
         }
 
         // Add user
-        users.add(user);
+        synchronized (usersLock) {
+            users.add(user);
+        }
+        usersByUuid.put(user.getUuid(), user);
         this.saveUsers();
+        tokenRefreshScheduler.schedule(user);
 
         // Make default profiles
         if (makeDefaultProfiles) {
@@ -378,56 +498,30 @@ public class ProtoLauncher {
             throw new IOException("Internal error while authenticating with Microsoft! " + microsoftResponse.getErrorDescription());
         }
 
-        // Authenticate with Xbox Live
-        logger.debug("Authenticating with Xbox Live...");
-        XboxLiveResponse xboxLiveResponse;
-        try {
-            xboxLiveResponse = microsoftAuth.authenticateXboxLive(microsoftResponse.getAccessToken());
-        } catch (Exception e) {
-            if (e.getMessage().startsWith("401")) {
-                microsoftResponse = microsoftAuth.refreshMicrosoft(microsoftResponse.getRefreshToken());
-                if (microsoftResponse.getError() != null) {
-                    throw new IOException("Internal error while refreshing the access token! " + microsoftResponse.getErrorDescription());
-                } else {
-                    xboxLiveResponse = microsoftAuth.authenticateXboxLive(microsoftResponse.getAccessToken());
-                }
-            } else {
-                throw e;
-            }
+        // Authenticate with Xbox Live, XSTS, and Minecraft
+        logger.debug("Authenticating with Xbox Live, XSTS, and Minecraft...");
+        MicrosoftTokenCache tokens = new MicrosoftTokenCache(microsoftResponse);
+        if (!tokens.refresh(microsoftAuth, Hop.XBOX_LIVE)) {
+            throw new IOException("Internal error while refreshing the access token!");
         }
-        String uhs = xboxLiveResponse.getDisplayClaims().getXui()[0].getUhs();
-
-        // Authenticate with XSTS
-        logger.debug("Authenticating with XSTS...");
-        XboxLiveResponse xstsResponse = microsoftAuth.authenticateXsts(xboxLiveResponse.getToken());
-
-        // Authenticate with Minecraft
-        logger.debug("Authenticating with Minecraft...");
-        MinecraftResponse minecraftResponse = microsoftAuth.authenticateMinecraft(xstsResponse.getToken(), uhs);
+        String minecraftToken = tokens.getMinecraftToken();
 
         // Create information
-        MicrosoftInfo microsoftInfo = new MicrosoftInfo(
-            microsoftResponse.getAccessToken(),
-            microsoftResponse.getRefreshToken(),
-            xboxLiveResponse.getToken(),
-            uhs,
-            xstsResponse.getToken(),
-            System.currentTimeMillis() + (Long.parseLong(minecraftResponse.getExpiresIn()) * 1000 * 60)
-        );
+        MicrosoftInfo microsoftInfo = new MicrosoftInfo(tokens);
 
         // Ensure game ownership
         logger.debug("Verifying game ownership...");
-        if (!microsoftAuth.verifyOwnership(minecraftResponse.getAccessToken())) {
+        if (!microsoftAuth.verifyOwnership(minecraftToken)) {
             throw new IOException("User does not own the game!");
         }
 
         // Get profile
         logger.debug("Fetching user profile...");
-        MojangAPI.ProfileInformationResponse profile = mojangApi.getProfileInformation(minecraftResponse.getAccessToken());
+        MojangAPI.ProfileInformationResponse profile = mojangApi.getProfileInformation(minecraftToken);
         logger.debug("Login completed successfully.");
 
         // Create and add a new user
-        User user = new User(profile.getName(), profile.getId(), "{}", minecraftResponse.getAccessToken());
+        User user = new User(profile.getName(), profile.getId(), "{}", minecraftToken);
         user.setMicrosoftInfo(microsoftInfo);
         this.addUser(user, true);
 
@@ -452,44 +546,20 @@ public class ProtoLauncher {
             return null;
         }
 
-        // Authenticate with Microsoft
-        logger.debug("Refreshing Microsoft...");
-        MicrosoftResponse microsoftResponse = microsoftAuth.refreshMicrosoft(mci.getRefreshToken());
-        if (microsoftResponse.getError() != null) {
+        // Restart the chain after the newest token that is still valid, always getting a new Minecraft token
+        MicrosoftTokenCache tokens = mci.toTokenCache(user.getAccessToken());
+        logger.debug("Refreshing from " + tokens.getRefreshStart(Hop.MINECRAFT) + "...");
+        if (!tokens.refresh(microsoftAuth, Hop.MINECRAFT)) {
             logger.debug("Microsoft refresh failed, user is invalid!");
             return null;
         }
 
-        // Authenticate with Xbox Live
-        logger.debug("Refreshing Xbox Live...");
-        XboxLiveResponse xboxLiveResponse;
-        try {
-            xboxLiveResponse = microsoftAuth.authenticateXboxLive(microsoftResponse.getAccessToken());
-        } catch (Exception e) {
-            logger.debug("Microsoft or Xbox Live refresh failed, user is invalid!");
-            return null;
-        }
-        String uhs = xboxLiveResponse.getDisplayClaims().getXui()[0].getUhs();
-
-        // Authenticate with XSTS
-        logger.debug("Refreshing XSTS...");
-        XboxLiveResponse xstsResponse = microsoftAuth.authenticateXsts(xboxLiveResponse.getToken());
-
-        // Authenticate with Minecraft
-        logger.debug("Refreshing Minecraft...");
-        MinecraftResponse minecraftResponse = microsoftAuth.authenticateMinecraft(xstsResponse.getToken(), uhs);
-
         // Update Microsoft Login Information
-        mci.setAccessToken(microsoftResponse.getAccessToken());
-        mci.setRefreshToken(microsoftResponse.getRefreshToken());
-        mci.setXblToken(xboxLiveResponse.getToken());
-        mci.setXblUhs(uhs);
-        mci.setXstsToken(xstsResponse.getToken());
-        mci.setDateExpires(System.currentTimeMillis() + (Long.parseLong(minecraftResponse.getExpiresIn()) * 1000 * 60));
+        mci.update(tokens);
         user.setMicrosoftInfo(mci);
 
         // Update access token
-        user.setAccessToken(minecraftResponse.getAccessToken());
+        user.setAccessToken(tokens.getMinecraftToken());
         logger.debug("Microsoft login refreshed.");
 
         // Return the updated user
@@ -550,13 +620,18 @@ public class ProtoLauncher {
         if (user.getMicrosoftInfo() == null) {
             yggdrasil.invalidate(user.getAccessToken());
         }
-        users.remove(user);
+        synchronized (usersLock) {
+            users.remove(user);
+        }
+        usersByUuid.remove(user.getUuid(), user);
+        tokenRefreshScheduler.cancel(user.getUuid());
         logger.debug("User removed.");
         this.saveUsers();
 
         // Switch to the next possible user
-        if (users.size() > 0) {
-            this.switchUser(users.get(0));
+        List<User> remaining = this.getAllUsers();
+        if (remaining.size() > 0) {
+            this.switchUser(remaining.get(0));
         } else {
             this.switchUser(null);
         }
@@ -683,36 +758,85 @@ public class ProtoLauncher {
     }
 
     /**
-     * Loads the map of {@link Profile}s, saving an empty map if the file does not already exist.
+     * Loads the {@link Profile}s that are needed right away: the global profiles and the current user's profiles.
+     * Every other user's profiles are loaded the first time they are needed, see {@link ProfileStore}.
      *
-     * @throws IOException Thrown if loading the profiles map goes horribly wrong.
+     * @throws IOException Thrown if loading the profiles goes horribly wrong.
      */
     public void loadProfiles() throws IOException {
         logger.debug("Loading profiles...");
-        Path path = FileLocation.PROFILES;
+        profilesByUuid.clear();
+        globalProfiles.clear();
+        profileStore.load(config.getCurrentUserUuid());
+        logger.debug("Profiles loaded.");
+    }
 
-        // Check if it exists, and if not, make a new list
-        if (!Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
-            if (path.getParent() != null) {
-                Files.createDirectories(path.getParent());
-            }
-            this.saveProfiles();
+    /**
+     * Rebuilds the user index from the users list.
+     * The index is kept up to date as users are added and removed, so this is only needed when the list is replaced.
+     */
+    private void indexUsers() {
+        usersByUuid.clear();
+        for (User user : this.getAllUsers()) {
+            usersByUuid.putIfAbsent(user.getUuid(), user);
+        }
+    }
+
+    /**
+     * Adds the profiles of a user to the profile indexes, called by the {@link ProfileStore} whenever it loads them.
+     * The indexes are kept up to date as profiles are added, updated and removed, so this is only needed on load.
+     */
+    private void indexProfiles(List<Profile> userProfiles) {
+        for (Profile profile : userProfiles) {
+            this.indexProfile(profile);
+        }
+    }
+
+    // Adds a profile to the profile indexes, or updates it if it is already in them.
+    private void indexProfile(Profile profile) {
+        profilesByUuid.put(profile.getUuid(), profile);
+        if (profile.getProfileSettings().isGlobal()) {
+            globalProfiles.put(profile.getUuid(), profile);
         } else {
-            profiles = gson.fromJson(Files.newBufferedReader(path), new TypeToken<HashMap<String, List<Profile>>>() { }.getType());
+            globalProfiles.remove(profile.getUuid());
         }
-        logger.debug("Profiles loaded.");
+    }
+
+    // Removes a profile from the profile indexes.
+    private void unindexProfile(Profile profile) {
+        profilesByUuid.remove(profile.getUuid(), profile);
+        globalProfiles.remove(profile.getUuid(), profile);
+    }
+
+    /**
+     * Saves the profiles of every loaded user, presumably after somebody's changed them.
+     * Prefer {@link ProtoLauncher#saveProfiles(String)} when only one user's profiles changed.
+     * The profiles are written in the background shortly after, see {@link PersistenceService}.
+     */
+    public void saveProfiles() {
+        profileStore.saveAll();
     }
 
     /**
-     * Saves the profiles map, presumably after somebody's changed it.
+     * Saves the profiles of the given user, presumably after somebody's changed them.
+     * Only that user's profiles are written, in the background shortly after, see {@link PersistenceService}.
      *
-     * @throws IOException Thrown if saving the profiles map goes horribly wrong.
+     * @param owner The UUID of the {@link User} whose profiles changed.
      */
-    public void saveProfiles() throws IOException {
-        logger.debug("Saving profiles...");
-        Path path = FileLocation.PROFILES;
-        Files.writeString(path, gson.toJson(profiles), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE, LinkOption.NOFOLLOW_LINKS);
-        logger.debug("Profiles saved.");
+    public void saveProfiles(String owner) {
+        profileStore.save(owner);
+    }
+
+    /**
+     * Writes every saved change to the configuration, users and profiles to disk right away,
+     * for when they need to be on disk before moving on, like before launching or exiting.
+     *
+     * @throws IOException Thrown if writing any of them fails.
+     */
+    public void flush() throws IOException {
+        logger.debug("Flushing launcher files...");
+        persistence.flush();
+        logger.debug("Launcher files flushed.");
     }
 
     /**
@@ -721,18 +845,19 @@ public class ProtoLauncher {
      * @return The size of all profiles.
      */
     public int getProfileCount() {
-        return profiles.values().stream().map(List::size).reduce(0, Integer::sum);
+        return profileStore.getProfileCount();
     }
 
     /**
-     * Gets a list of profiles by the provided owner.
+     * Gets a list of profiles by the provided owner, loading them if they haven't been yet.
      *
      * @param owner The UUID of the {@link User} whose profiles to get.
      * @return A list of {@link Profile}s owned by the given user, or null if there are none.
+     * @throws java.io.UncheckedIOException Thrown if the user's profiles exist but can't be loaded.
      */
     @Nullable
     public List<Profile> getProfiles(String owner) {
-        return profiles.getOrDefault(owner, null);
+        return profileStore.get(owner);
     }
 
     /**
@@ -742,16 +867,16 @@ public class ProtoLauncher {
      * @return A list of {@link Profile}s owned by the given user, or null if there are none.
      */
     public List<Profile> getProfilesWithGlobals(String owner) {
-        List<Profile> globalProfiles = this.getGlobalProfiles();
+        List<Profile> profilesWithGlobals = this.getGlobalProfiles();
         List<Profile> userProfiles = this.getProfiles(owner);
         if (userProfiles != null) {
             for (Profile profile : userProfiles) {
-                if (globalProfiles.stream().filter(p -> p.getUuid().equals(profile.getUuid())).findFirst().orElse(null) == null) {
-                    globalProfiles.add(profile);
+                if (!globalProfiles.containsKey(profile.getUuid())) {
+                    profilesWithGlobals.add(profile);
                 }
             }
         }
-        return globalProfiles;
+        return profilesWithGlobals;
     }
 
     /**
@@ -760,7 +885,9 @@ public class ProtoLauncher {
      * @return A list of {@link Profile}s that are marked as global.
      */
     public List<Profile> getGlobalProfiles() {
-        return profiles.values().stream().flatMap(List::stream).filter(p -> p.getProfileSettings().isGlobal()).collect(Collectors.toList());
+        synchronized (globalProfiles) {
+            return new ArrayList<>(globalProfiles.values());
+        }
     }
 
     /**
@@ -770,17 +897,14 @@ public class ProtoLauncher {
      * @param uuid The UUID of the profile.
      * @return The {@link Profile} or null if not found.
      */
+    @Nullable
     public Profile getProfile(String owner, String uuid) {
-        Profile profile = null;
-        List<Profile> userProfiles = this.getProfiles(owner);
-        if (userProfiles != null) {
-            profile = userProfiles.stream().filter(p -> p.getUuid().equals(uuid)).findFirst().orElse(null);
+        // The profile has to either be owned by the owner or be a global profile
+        Profile profile = profilesByUuid.get(uuid);
+        if (profile != null && owner.equals(profile.getOwner())) {
+            return profile;
         }
-        // If the profile's still null, it might be a global profile
-        if (profile == null) {
-            profile = this.getGlobalProfiles().stream().filter(p -> p.getUuid().equals(uuid)).findFirst().orElse(null);
-        }
-        return profile;
+        return globalProfiles.get(uuid);
     }
 
     /**
@@ -818,8 +942,8 @@ public class ProtoLauncher {
 
         // Add to profiles
         userProfiles.add(0, profile);
-        profiles.put(profile.getOwner(), userProfiles);
-        this.saveProfiles();
+        profileStore.put(profile.getOwner(), userProfiles);
+        this.indexProfile(profile);
 
         // Switch profile
         logger.debug("Profile added.");
@@ -869,21 +993,19 @@ public class ProtoLauncher {
         }
 
         // If the profile exists, update it, otherwise add it
-        if (userProfiles.stream().filter(p -> p.getUuid().equals(profile.getUuid())).findFirst().orElse(null) == null) {
+        Profile existing = profilesByUuid.get(profile.getUuid());
+        int index = existing != null ? userProfiles.indexOf(existing) : -1;
+        if (index < 0) {
             this.addProfile(profile);
             return;
-        } else {
-            userProfiles = userProfiles.stream()
-                    .map(p -> p.getUuid().equals(profile.getUuid()) ? profile : p)
-                    .collect(Collectors.toList());
         }
 
-
         // Update user profiles
-        profiles.put(profile.getOwner(), userProfiles);
+        userProfiles.set(index, profile);
+        this.indexProfile(profile);
 
         // Save
-        this.saveProfiles();
+        this.saveProfiles(profile.getOwner());
     }
 
     /**
@@ -900,14 +1022,16 @@ public class ProtoLauncher {
         if (userProfiles == null) {
             return;
         }
-        userProfiles.removeIf(p -> p.getUuid().equals(profile.getUuid()));
+        Profile existing = profilesByUuid.get(profile.getUuid());
+        if (existing != null && userProfiles.remove(existing)) {
+            this.unindexProfile(existing);
+        }
         if (userProfiles.size() == 0) {
-            profiles.remove(profile.getOwner());
+            profileStore.remove(profile.getOwner());
         } else {
-            profiles.put(profile.getOwner(), userProfiles);
+            this.saveProfiles(profile.getOwner());
         }
         logger.debug("Profile removed.");
-        this.saveProfiles();
 
         // Remove the folder if it's empty
         Path path = Path.of(profile.getPath());
@@ -1054,66 +1178,192 @@ public class ProtoLauncher {
 
         // Save if updated
         if (updated) {
-            profiles.put(owner, userProfiles);
-            this.saveProfiles();
+            this.saveProfiles(owner);
         }
     }
 
     /**
      * Loads the {@link VersionManifest}, downloading it if necessary.
+     * <br/><br/>
+     * If there is a cached copy, it is used right away, and if it is older than the maximum manifest age
+     * it is refreshed in the background (see {@link ProtoLauncher#refreshVersionManifest(DownloadProgressConsumer)}).
+     * Only if there is no usable cached copy does this wait for the download.
      *
      * @param downloadProgress Called to show the download progress.
      * @throws IOException Thrown if something goes wrong loading or downloading the version manifest.
      */
     public void loadVersionManifest(DownloadProgressConsumer downloadProgress) throws IOException {
         logger.debug("Loading version manifest...");
-        URL url = config.getEndpoints().getVersionManifest();
         Path path = FileLocation.VERSION_MANIFEST;
 
-        // Check if it needs to be downloaded and, if it does, then download it
-        Instant nextManifestUpdate = config.getLastManifestUpdate().plus(config.getMaxManifestAge());
-        if (!Files.exists(path, LinkOption.NOFOLLOW_LINKS) || Instant.now().isAfter(nextManifestUpdate)) {
-            logger.debug("Version manifest update requested. Downloading...");
+        // Use the cached manifest if there is one
+        VersionManifest cached = this.readCachedManifest(path, VersionManifest.class);
+        if (cached != null) {
+            versionManifest = cached;
+            Instant nextManifestUpdate = config.getLastManifestUpdate().plus(config.getMaxManifestAge());
+            if (Instant.now().isAfter(nextManifestUpdate)) {
+                logger.debug("Version manifest update requested. Refreshing in the background...");
+                this.runInBackground("refresh the version manifest", () -> this.refreshVersionManifest((total, transferred) -> { }));
+            }
+            logger.debug("Version manifest loaded.");
+            return;
+        }
+
+        // Otherwise there is nothing to use until it is downloaded
+        logger.debug("No usable version manifest. Downloading...");
+        this.refreshVersionManifest(downloadProgress);
+        logger.debug("Version manifest loaded.");
+    }
+
+    /**
+     * Downloads the {@link VersionManifest} if it changed since it was last downloaded, and swaps it in if it did.
+     * If it didn't change, the server responds without a body and nothing is parsed.
+     *
+     * @param downloadProgress Called to show the download progress.
+     * @return <code>true</code> if the manifest changed, otherwise <code>false</code>.
+     * @throws IOException Thrown if something goes wrong downloading or parsing the version manifest.
+     */
+    public boolean refreshVersionManifest(DownloadProgressConsumer downloadProgress) throws IOException {
+        synchronized (versionManifestLock) {
+            URL url = config.getEndpoints().getVersionManifest();
+            Path path = FileLocation.VERSION_MANIFEST;
             if (path.getParent() != null) {
                 Files.createDirectories(path.getParent());
             }
-            long size = Network.fetchFileSize(url);
-            Network.download(url, path, progress -> downloadProgress.accept(size, progress));
+
+            // Only make the request conditional if there is something to fall back to
+            boolean cached = versionManifest != null && Files.exists(path, LinkOption.NOFOLLOW_LINKS);
+            HttpHeaders headers = Network.downloadIfModified(url, path, cached ? config.getManifestETag() : null, cached ? config.getManifestLastModified() : null, downloadProgress);
+
+            // Swap in the new manifest
+            if (headers != null) {
+                try (BufferedReader reader = Files.newBufferedReader(path)) {
+                    versionManifest = gson.fromJson(reader, VersionManifest.class);
+                }
+                config.setManifestETag(headers.firstValue("ETag").orElse(null));
+                config.setManifestLastModified(headers.firstValue("Last-Modified").orElse(null));
+            }
             config.setLastManifestUpdate(Instant.now());
             this.saveConfig();
+            return headers != null;
         }
-
-        // Parse the manifest
-        versionManifest = gson.fromJson(Files.newBufferedReader(path), VersionManifest.class);
-        logger.debug("Version manifest loaded.");
     }
 
     /**
      * Loads the {@link ModdedVersionManifest}, downloading it if necessary.
+     * This works the same way as {@link ProtoLauncher#loadVersionManifest(DownloadProgressConsumer)}.
+     *
      * @param downloadProgress Called to show the download progress.
      * @throws IOException Thrown if something goes wrong loading or downloading the modded version manifest.
      */
     public void loadModdedVersionManifest(DownloadProgressConsumer downloadProgress) throws IOException {
         logger.debug("Loading modded version manifest...");
-        URL url = config.getEndpoints().getModdedVersionManifest();
         Path path = FileLocation.MODDED_VERSION_MANIFEST;
 
-        // Check if it needs to be downloaded and, if it does, then download it
-        Instant nextManifestUpdate = config.getLastModdedManifestUpdate().plus(config.getMaxManifestAge());
-        if (!Files.exists(path, LinkOption.NOFOLLOW_LINKS) || Instant.now().isAfter(nextManifestUpdate)) {
-            logger.debug("Modded version manifest update requested. Downloading...");
+        // Use the cached manifest if there is one
+        ModdedVersionManifest cached = this.readCachedManifest(path, ModdedVersionManifest.class);
+        if (cached != null) {
+            moddedVersionManifest = cached;
+            Instant nextManifestUpdate = config.getLastModdedManifestUpdate().plus(config.getMaxManifestAge());
+            if (Instant.now().isAfter(nextManifestUpdate)) {
+                logger.debug("Modded version manifest update requested. Refreshing in the background...");
+                this.runInBackground("refresh the modded version manifest", () -> this.refreshModdedVersionManifest((total, transferred) -> { }));
+            }
+            logger.debug("Modded version manifest loaded.");
+            return;
+        }
+
+        // Otherwise there is nothing to use until it is downloaded
+        logger.debug("No usable modded version manifest. Downloading...");
+        this.refreshModdedVersionManifest(downloadProgress);
+        logger.debug("Modded version manifest loaded.");
+    }
+
+    /**
+     * Downloads the {@link ModdedVersionManifest} if it changed since it was last downloaded, and swaps it in if it did.
+     * This works the same way as {@link ProtoLauncher#refreshVersionManifest(DownloadProgressConsumer)}.
+     *
+     * @param downloadProgress Called to show the download progress.
+     * @return <code>true</code> if the manifest changed, otherwise <code>false</code>.
+     * @throws IOException Thrown if something goes wrong downloading or parsing the modded version manifest.
+     */
+    public boolean refreshModdedVersionManifest(DownloadProgressConsumer downloadProgress) throws IOException {
+        synchronized (moddedVersionManifestLock) {
+            URL url = config.getEndpoints().getModdedVersionManifest();
+            Path path = FileLocation.MODDED_VERSION_MANIFEST;
             if (path.getParent() != null) {
                 Files.createDirectories(path.getParent());
             }
-            long size = Network.fetchFileSize(url);
-            Network.download(url, path, progress -> downloadProgress.accept(size, progress));
+
+            // Only make the request conditional if there is something to fall back to
+            boolean cached = moddedVersionManifest != null && Files.exists(path, LinkOption.NOFOLLOW_LINKS);
+            HttpHeaders headers = Network.downloadIfModified(url, path, cached ? config.getModdedManifestETag() : null, cached ? config.getModdedManifestLastModified() : null, downloadProgress);
+
+            // Swap in the new manifest
+            if (headers != null) {
+                try (BufferedReader reader = Files.newBufferedReader(path)) {
+                    moddedVersionManifest = gson.fromJson(reader, ModdedVersionManifest.class);
+                }
+                config.setModdedManifestETag(headers.firstValue("ETag").orElse(null));
+                config.setModdedManifestLastModified(headers.firstValue("Last-Modified").orElse(null));
+            }
             config.setLastModdedManifestUpdate(Instant.now());
             this.saveConfig();
+            return headers != null;
         }
+    }
 
-        // Parse the manifest
-        moddedVersionManifest = gson.fromJson(Files.newBufferedReader(path), ModdedVersionManifest.class);
-        logger.debug("Modded version manifest loaded.");
+    /**
+     * Reads a cached manifest from the given path.
+     * A missing or unreadable manifest just means it has to be downloaded, so this never fails.
+     *
+     * @param path The path of the cached manifest.
+     * @param type The type of the manifest.
+     * @return The cached manifest, or null if there is no usable one.
+     */
+    @Nullable
+    private <T> T readCachedManifest(Path path, Class<T> type) {
+        if (!Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+            return null;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(path)) {
+            return gson.fromJson(reader, type);
+        } catch (IOException | JsonParseException e) {
+            logger.warn("Unable to read the cached " + path.getFileName() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Runs the given task on the background executor, logging it if it fails.
+     *
+     * @param description What the task does, for the log.
+     * @param task The task to run.
+     */
+    private void runInBackground(String description, BackgroundTask task) {
+        backgroundExecutor.execute(() -> {
+            try {
+                task.run();
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Unable to " + description + ": " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Saves a snapshot, only logging it if it fails, since the file it was made from can always be parsed again.
+     *
+     * @param kind The kind of snapshot.
+     * @param name The name of the snapshot.
+     * @param sha1 The sha1 of the file the snapshot was made from.
+     * @param writer Writes the snapshot's contents.
+     */
+    private void saveSnapshot(String kind, String name, String sha1, SnapshotCache.SnapshotWriter writer) {
+        try {
+            snapshotCache.save(kind, name, sha1, writer);
+        } catch (IOException e) {
+            logger.warn("Unable to save the " + kind + " snapshot for " + name + ": " + e.getMessage());
+        }
     }
 
     /**
@@ -1130,26 +1380,25 @@ public class ProtoLauncher {
         Path folder = FileLocation.VERSIONS_FOLDER.resolve(id + "/");
         Path file = folder.resolve(id + ".json");
 
-        // Check if it needs to be downloaded and, if it does, then download it
-        if (!Files.exists(file, LinkOption.NOFOLLOW_LINKS)) {
-            if (file.getParent() != null) {
-                Files.createDirectories(file.getParent());
+        // Download it if it doesn't exist or fails validation
+        URL url = new URL(info.getUrl());
+        long size = Files.exists(file, LinkOption.NOFOLLOW_LINKS) ? 0 : Network.fetchFileSize(url).orElse(0); // Unknown sizes don't count toward progress
+        String sha1 = config.shouldValidate() ? info.getSha1() : null;
+        downloadScheduler.fetch(new DownloadTask(id, url, file, size, sha1), progress -> downloadProgress.accept(size, progress));
+
+        // Load version, from its snapshot if it has one that is still up to date
+        // Without validation, the file is identified through the journal, so it is only hashed when it changes
+        String fileSha1 = sha1 != null ? sha1 : verificationJournal.identify(file);
+        verificationJournal.save();
+        Version version = snapshotCache.load(SNAPSHOT_VERSIONS, id, fileSha1, Version::readSnapshot);
+        if (version == null) {
+            try (BufferedReader reader = Files.newBufferedReader(file)) {
+                version = gson.fromJson(reader, Version.class);
             }
-            URL url = new URL(info.getUrl());
-            long size = Network.fetchFileSize(url);
-            Network.download(url, file, progress -> downloadProgress.accept(size, progress));
+            this.saveSnapshot(SNAPSHOT_VERSIONS, id, fileSha1, version::writeSnapshot);
         }
-
-        // Validate
-        logger.debug("Validating...");
-        if (config.shouldValidate() && !Validation.validate(file, info.getSha1())) {
-            // TODO: Retry download.
-            throw new IOException("Validation failed!");
-        }
-
-        // Load version
         logger.debug("Version loaded.");
-        return gson.fromJson(Files.newBufferedReader(file), Version.class);
+        return version;
     }
 
     /**
@@ -1166,22 +1415,11 @@ public class ProtoLauncher {
         Path file = folder.resolve(id + ".jar");
         Artifact artifact = version.getDownloads().getClient();
 
-        // Check if it needs to be downloaded and, if it does, then download it
-        if (!Files.exists(file, LinkOption.NOFOLLOW_LINKS)) {
-            if (file.getParent() != null) {
-                Files.createDirectories(file.getParent());
-            }
-            URL url = new URL(artifact.getUrl());
-            long size = artifact.getSize();
-            Network.download(url, file, progress -> downloadProgress.accept(size, progress));
-        }
-
-        // Validate
-        logger.debug("Validating...");
-        if (config.shouldValidate() && !Validation.validate(file, artifact.getSha1())) {
-            // TODO: Retry download.
-            throw new IOException("Validation failed!");
-        }
+        // Download it if it doesn't exist or fails validation
+        long size = artifact.getSize();
+        String sha1 = config.shouldValidate() ? artifact.getSha1() : null;
+        downloadScheduler.fetch(new DownloadTask(id, new URL(artifact.getUrl()), file, size, sha1), progress -> downloadProgress.accept(size, progress));
+        verificationJournal.save();
         logger.debug("Client downloaded.");
     }
 
@@ -1310,8 +1548,8 @@ public class ProtoLauncher {
         // Download file
         Path compressedFile = folder.resolve("jre-1.8" + (isTarFile ? ".tar.gz" : ".zip"));
         if (!Files.exists(compressedFile, LinkOption.NOFOLLOW_LINKS)) {
-            long size = Network.fetchFileSize(url);
-            Network.download(url, compressedFile, progress -> downloadProgress.accept(size, progress));
+            long size = Network.fetchFileSize(url).orElse(0); // Unknown sizes don't count toward progress
+            downloadScheduler.fetch(new DownloadTask("Java 8", url, compressedFile, size, null), progress -> downloadProgress.accept(size, progress));
         }
         stepProgress.accept(totalSteps, ++currentStep);
 
@@ -1374,8 +1612,8 @@ public class ProtoLauncher {
      * Downloads all the libraries for the given {@link Version}.
      *
      * @param version The {@link Version} to download libraries for.
-     * @param stepProgress Called for every library to give a total amount of steps.
-     * @param stepInfo Called to provide the name of each library.
+     * @param stepProgress Called for every finished library download to give a total amount of steps.
+     * @param stepInfo Called to provide the name of each library as it finishes.
      * @param downloadProgress Called to show download progress.
      * @return A filtered and downloaded list of {@link Library}'s.
      * @throws IOException Thrown if something goes wrong downloading any file operation or download.
@@ -1393,7 +1631,7 @@ public class ProtoLauncher {
                 return true;
 
             // If the rules resolve to allow, return true
-            } else if (Rule.determine(library.getRules().toArray(Rule[]::new)) == Action.ALLOW) {
+            } else if (Rule.determine(library.getRules()) == Action.ALLOW) {
                 return true;
 
             // Otherwise, return false
@@ -1402,37 +1640,28 @@ public class ProtoLauncher {
             }
         }).toList();
 
-        // Main download loop
-        final int totalSteps = libraries.size();
-        int currentStep = 0;
+        // Schedule every library and native download at once; each file is validated on its worker as soon as it
+        // finishes downloading and natives are extracted as soon as they are validated, while the rest keep going
+        DownloadScheduler.Batch batch = downloadScheduler.newBatch(stepProgress, stepInfo, downloadProgress);
+        Set<Path> scheduled = new HashSet<>(); // Merged versions may list the same library twice
         for (Library library : libraries) {
-            // Update progress
-            stepProgress.accept(totalSteps, ++currentStep);
-            stepInfo.accept(library.getNameDetails()[1]);
-
             // Don't try and download libraries that don't have downloads
             if (library.getDownloads() == null) {
                 continue;
             }
+            String name = library.getNameDetails()[1];
 
             // Get library artifact
             Artifact jarArtifact = library.getDownloads().getArtifact();
             if (jarArtifact != null) {
                 assert jarArtifact.getPath() != null; // This won't be null for a library jar
+                assert jarArtifact.getUrl() != null; // This won't be null for a library jar
 
-                // Download if it does not already exist
+                // Download and validate
                 Path jarPath = FileLocation.LIBRARIES_FOLDER.resolve(jarArtifact.getPath());
-                if (!Files.exists(jarPath, LinkOption.NOFOLLOW_LINKS)) {
-                    Files.createDirectories(jarPath.getParent());
-                    URL url = new URL(jarArtifact.getUrl());
-                    long size = jarArtifact.getSize();
-                    Network.download(url, jarPath, progress -> downloadProgress.accept(size, progress));
-                }
-
-                // Validate
-                if (config.shouldValidate() && jarArtifact.getSha1() != null && !Validation.validate(jarPath, jarArtifact.getSha1())) {
-                    // TODO: Retry download.
-                    throw new IOException("Validation failed!");
+                String sha1 = config.shouldValidate() ? jarArtifact.getSha1() : null;
+                if (scheduled.add(jarPath)) {
+                    batch.submit(new DownloadTask(name, new URL(jarArtifact.getUrl()), jarPath, jarArtifact.getSize(), sha1));
                 }
             }
 
@@ -1442,25 +1671,18 @@ public class ProtoLauncher {
                 assert natArtifact.getPath() != null; // This won't be null for a native
                 assert natArtifact.getUrl() != null; // This won't be null for a native
 
-                // Download if it does not already exist
+                // Download, validate, and extract
                 Path natPath = FileLocation.LIBRARIES_FOLDER.resolve(natArtifact.getPath());
-                if (!Files.exists(natPath, LinkOption.NOFOLLOW_LINKS)) {
-                    Files.createDirectories(natPath.getParent());
-                    URL url = new URL(natArtifact.getUrl());
-                    long size = natArtifact.getSize();
-                    Network.download(url, natPath, progress -> downloadProgress.accept(size, progress));
+                String sha1 = config.shouldValidate() ? natArtifact.getSha1() : null;
+                String[] exclusions = library.getExtract() != null ? library.getExtract().get("exclude") : null;
+                if (scheduled.add(natPath)) {
+                    batch.submit(new DownloadTask(name, new URL(natArtifact.getUrl()), natPath, natArtifact.getSize(), sha1)
+                        .setCompletionHandler(path -> this.extractNative(path, nativesFolder, exclusions)));
                 }
-
-                // Validate
-                if (config.shouldValidate() && natArtifact.getSha1() != null && !Validation.validate(natPath, natArtifact.getSha1())) {
-                    // TODO: Retry download.
-                    throw new IOException("Validation failed!");
-                }
-
-                // Extract the native
-                this.extractNative(natPath, nativesFolder, library.getExtract() != null ? library.getExtract().get("exclude") : null);
             }
         }
+        batch.await();
+        verificationJournal.save();
         logger.debug("Libraries downloaded.");
 
         // Filter the libraries to exclude any native-only libraries (so it only returns 'true' libraries)
@@ -1477,6 +1699,14 @@ public class ProtoLauncher {
      * @param exclusions A list of file exclusions
      */
     private void extractNative(Path source, Path destination, @Nullable String[] exclusions) throws IOException {
+        // Natives are extracted from the download workers, so only let one extract into the folder at a time
+        synchronized (nativesLock) {
+            this.extractNativeInternal(source, destination, exclusions);
+        }
+    }
+
+    // The internal function for extractNative.
+    private void extractNativeInternal(Path source, Path destination, @Nullable String[] exclusions) throws IOException {
         logger.debug("Extracting native...");
 
         // Prepare jar file
@@ -1556,77 +1786,92 @@ public class ProtoLauncher {
         Path resourcesFolder = profileFolder.resolve("resources/");
         Path indexFile = assetsFolder.resolve("indexes/" + version.getAssetIndex().getId() + ".json");
 
-        // Download the index file if it does not exist
-        if (!Files.exists(indexFile, LinkOption.NOFOLLOW_LINKS)) {
-            Files.createDirectories(indexFile.getParent());
-            URL url = new URL(version.getAssetIndex().getUrl());
-            Network.download(url, indexFile);
-        }
-
-        // Validate
-        if (config.shouldValidate() && version.getAssetIndex().getSha1() != null && !Validation.validate(indexFile, version.getAssetIndex().getSha1())) {
-            // TODO: Retry download.
-            throw new IOException("Validation failed!");
+        // Download the index file if it does not exist or fails validation
+        Artifact indexArtifact = version.getAssetIndex();
+        String indexSha1 = config.shouldValidate() ? indexArtifact.getSha1() : null;
+        downloadScheduler.fetch(new DownloadTask(indexArtifact.getId(), new URL(indexArtifact.getUrl()), indexFile, indexArtifact.getSize(), indexSha1), progress -> { });
+
+        // Load the index from its snapshot if it has one that is still up to date,
+        // otherwise parse the index file (streamed straight into a compact form, see AssetIndex)
+        // Without validation, the file is identified through the journal, so it is only hashed when it changes
+        String indexId = indexArtifact.getId();
+        String indexFileSha1 = indexSha1 != null ? indexSha1 : verificationJournal.identify(indexFile);
+        AssetIndex index = snapshotCache.load(SNAPSHOT_ASSET_INDEXES, indexId, indexFileSha1, AssetIndex::readSnapshot);
+        if (index == null) {
+            try (BufferedReader reader = Files.newBufferedReader(indexFile)) {
+                index = gson.fromJson(reader, AssetIndex.class);
+            }
+            this.saveSnapshot(SNAPSHOT_ASSET_INDEXES, indexId, indexFileSha1, index::writeSnapshot);
         }
-
-        // Parse the index file
-        AssetIndex index = gson.fromJson(Files.newBufferedReader(indexFile), AssetIndex.class);
+        AssetObjects objects = index.getObjects();
 
         // Create the directories if needed (so we're not checking every loop)
         boolean isVirtual = Boolean.TRUE.equals(index.isVirtual());
+        boolean mapToResources = Boolean.TRUE.equals(index.mapToResources());
+        if (isVirtual || mapToResources) {
+            Files.createDirectories(objectsFolder);
+        }
         if (isVirtual) {
             Files.createDirectories(virtualFolder);
         }
-        boolean mapToResources = Boolean.TRUE.equals(index.mapToResources());
         if (mapToResources) {
             Files.createDirectories(resourcesFolder);
         }
 
-        // Main download loop
-        final int totalSteps = index.getObjects().entrySet().size() * 3 + 1; // 3 steps per asset, 1 log file download
-        int currentStep = 0;
-        for (Entry<String, Asset> entry : index.getObjects().entrySet()) {
-            Asset asset = entry.getValue();
-
-            // Update progress
-            stepProgress.accept(totalSteps, ++currentStep);
-            try {
-                stepInfo.accept(entry.getKey().substring(entry.getKey().lastIndexOf('/') + 1));
-            } catch (Exception e) {
-                stepInfo.accept(asset.getHash());
-            }
-
-            // Download asset if it does not already exist
-            String assetLocation = asset.getId() + "/" + asset.getHash();
+        // Download loop; assets that don't exist yet are handed to the download scheduler as they are found,
+        // so only the missing ones ever get a download task (and a url)
+        final int totalSteps = objects.size() * 3 + 1; // 3 steps per asset, 1 log file download
+        AtomicInteger assetsDone = new AtomicInteger();
+        DownloadScheduler.Batch batch = downloadScheduler.newBatch((total, current) -> {
+            stepProgress.accept(totalSteps, assetsDone.incrementAndGet());
+        }, stepInfo, downloadProgress);
+        String assetApi = config.getEndpoints().getAssetApi().toString();
+        Set<String> scheduled = new HashSet<>(); // Several assets may share a hash, and so the same stored object
+        for (int i = 0; i < objects.size(); i++) {
+            String assetLocation = objects.getLocation(i);
             Path assetPath = objectsFolder.resolve(assetLocation);
-            if (!Files.exists(assetPath, LinkOption.NOFOLLOW_LINKS)) {
-                Files.createDirectories(assetPath.getParent());
-                URL url = new URL(config.getEndpoints().getAssetApi() + assetLocation);
-                long size = asset.getSize();
-                Network.download(url, assetPath, progress -> downloadProgress.accept(size, progress));
+            if (!scheduled.add(assetLocation) || Files.exists(assetPath, LinkOption.NOFOLLOW_LINKS)) {
+                stepProgress.accept(totalSteps, assetsDone.incrementAndGet());
+            } else {
+                String name = objects.getName(i).substring(objects.getName(i).lastIndexOf('/') + 1);
+                URL url = new URL(assetApi + assetLocation);
+                batch.submit(new DownloadTask(name, url, assetPath, objects.getSize(i), config.shouldValidate() ? objects.getHash(i) : null));
             }
+        }
+        batch.await();
+        verificationJournal.save();
+
+        // Materialize loop for virtual and resource-mapped assets
+        // Virtual assets are hard linked where the file system allows it, since only the launcher writes there,
+        // but resources live in the profile where the game or mods may edit them, so they are always copied
+        Materializer virtualMaterializer = isVirtual ? new Materializer(objectsFolder, virtualFolder, true) : null;
+        Materializer resourcesMaterializer = mapToResources ? new Materializer(objectsFolder, resourcesFolder, false) : null;
+        int currentStep = assetsDone.get();
+        for (int i = 0; i < objects.size(); i++) {
+            // Only find the stored object if it actually has to be materialized somewhere
+            Path assetPath = isVirtual || mapToResources ? objectsFolder.resolve(objects.getLocation(i)) : null;
 
             // Update progress
             stepProgress.accept(totalSteps, ++currentStep);
 
-            // If the asset is virtual, copy the file to the virtual location
+            // If the asset is virtual, materialize the file at the virtual location
             if (isVirtual) {
-                Path assetPathVirtual = virtualFolder.resolve(entry.getKey());
+                Path assetPathVirtual = virtualFolder.resolve(objects.getName(i));
                 if (!Files.exists(assetPathVirtual, LinkOption.NOFOLLOW_LINKS)) {
                     Files.createDirectories(assetPathVirtual.getParent());
-                    Files.copy(assetPath, assetPathVirtual, StandardCopyOption.REPLACE_EXISTING);
+                    virtualMaterializer.materialize(assetPath, assetPathVirtual);
                 }
             }
 
             // Update progress
             stepProgress.accept(totalSteps, ++currentStep);
 
-            // If map to resources, copy the file to the resources location
+            // If map to resources, materialize the file at the resources location
             if (mapToResources) {
-                Path assetResourcesPath = resourcesFolder.resolve(entry.getKey());
+                Path assetResourcesPath = resourcesFolder.resolve(objects.getName(i));
                 if (!Files.exists(assetResourcesPath, LinkOption.NOFOLLOW_LINKS)) {
                     Files.createDirectories(assetResourcesPath.getParent());
-                    Files.copy(assetPath, assetResourcesPath, StandardCopyOption.REPLACE_EXISTING);
+                    resourcesMaterializer.materialize(assetPath, assetResourcesPath);
                 }
             }
         }
@@ -1639,12 +1884,9 @@ public class ProtoLauncher {
         if (version.getLogging() != null) {
             Artifact artifact = version.getLogging().getClient().getFile();
             Path logFilePath = logConfigsFolder.resolve(artifact.getId());
-            if (!Files.exists(logFilePath, LinkOption.NOFOLLOW_LINKS)) {
-                Files.createDirectories(logFilePath.getParent());
-                URL url = new URL(artifact.getUrl());
-                long size = artifact.getSize();
-                Network.download(url, logFilePath, progress -> downloadProgress.accept(size, progress));
-            }
+            long size = artifact.getSize();
+            String sha1 = config.shouldValidate() ? artifact.getSha1() : null;
+            downloadScheduler.fetch(new DownloadTask(artifact.getId(), new URL(artifact.getUrl()), logFilePath, size, sha1), progress -> downloadProgress.accept(size, progress));
         }
         logger.debug("Assets downloaded.");
 
@@ -1664,23 +1906,71 @@ public class ProtoLauncher {
      * @param launcherVersion The version of the launcher.
      * @return A new {@link Process} for Minecraft.
      * @throws IOException Thrown if something goes terribly wrong.
+     * @see ProtoLauncher#resolveLaunch(Profile, Version, List, AssetIndex, Path, String, String)
      */
     public Process launch(User user, Profile profile, Version version, List<Library> libraries, AssetIndex assetIndex, @Nullable Path javaPath, String launcherVersion) throws IOException {
+        return this.launch(user, profile, this.resolveLaunch(profile, version, libraries, assetIndex, javaPath, launcherVersion, ""));
+    }
+
+    /**
+     * Launches Minecraft from an already resolved launch, substituting the user's variables into the arguments.
+     *
+     * @param user The {@link User} to launch with.
+     * @param profile The {@link Profile} that is being launched.
+     * @param resolved The {@link ResolvedLaunch} for the profile.
+     * @return A new {@link Process} for Minecraft.
+     * @throws IOException Thrown if something goes terribly wrong.
+     */
+    public Process launch(User user, Profile profile, ResolvedLaunch resolved) throws IOException {
         logger.debug("Launching...");
+        this.flush();
+        Path runFolder = Path.of(resolved.getRunFolder());
+        Files.createDirectories(runFolder);
+
+        // Replace user variables
+        List<String> arguments = new ArgumentTemplate(resolved.getArguments()).resolve(ResolvedLaunch.getUserVariables(user));
+
+        // Prepare the launch command
+        List<String> command = new ArrayList<>(arguments.size() + 2);
+        command.add(resolved.getJavaPath() != null ? resolved.getJavaPath() : "java");
+        command.add("-Xdiag");
+        command.addAll(arguments);
+        logger.debug("Full command: " + String.join(" ", command));
+
+        // Launch the game
+        ProcessBuilder builder = new ProcessBuilder(command);
+        builder.directory(runFolder.toFile());
+        logger.debug("Launched.");
+        return builder.inheritIO().start();
+    }
+
+    /**
+     * Works out everything needed to launch the given profile except for the user's variables.
+     *
+     * @param profile The {@link Profile} that is being launched.
+     * @param version The {@link Version} to launch as provided by {@link ProtoLauncher#downloadVersion(VersionInfo, DownloadProgressConsumer)}
+     * @param libraries The {@link Library} array as provided by {@link ProtoLauncher#downloadLibraries(Version, StepProgressConsumer, StepInfoConsumer, DownloadProgressConsumer)}
+     * @param assetIndex The {@link AssetIndex} as provided by {@link ProtoLauncher#downloadAssets(Version, Path, StepProgressConsumer, StepInfoConsumer, DownloadProgressConsumer)}
+     * @param javaPath The (optional) Java path as provided by {@link ProtoLauncher#downloadJava(StepProgressConsumer, DownloadProgressConsumer)}
+     * @param launcherVersion The version of the launcher.
+     * @param fingerprint The fingerprint as provided by {@link ProtoLauncher#createLaunchFingerprint(Profile, String)}.
+     * @return A new {@link ResolvedLaunch}.
+     */
+    public ResolvedLaunch resolveLaunch(Profile profile, Version version, List<Library> libraries, AssetIndex assetIndex, @Nullable Path javaPath, String launcherVersion, String fingerprint) {
+        logger.debug("Resolving launch...");
 
         // Prepare run directory
         Path runFolder = Path.of(profile.getPath()).toAbsolutePath();
-        Files.createDirectories(runFolder);
 
         // Prepare jar location
         Path versionFolder = FileLocation.VERSIONS_FOLDER.resolve(version.getId() + "/");
         Path versionJarFile = versionFolder.resolve(version.getId() + ".jar");
+        Path nativesFolder = versionFolder.resolve("natives/").toAbsolutePath();
 
         // Prepare classpath
         Path librariesFolder = FileLocation.LIBRARIES_FOLDER;
-        String[] classpath = new String[libraries.size() + 1];
-        for (int i = 0; i < classpath.length - 1; i++) {
-            Library library = libraries.get(i);
+        List<String> classpath = new ArrayList<>(libraries.size() + 1);
+        for (Library library : libraries) {
             String path;
             if (library.getDownloads() == null || library.getDownloads().getArtifact() == null || library.getDownloads().getArtifact().getPath() == null) {
                 // Construct path manually.
@@ -1689,71 +1979,168 @@ public class ProtoLauncher {
             } else {
                 path = library.getDownloads().getArtifact().getPath();
             }
-            classpath[i] = librariesFolder.resolve(path).toAbsolutePath().toString();
+            classpath.add(librariesFolder.resolve(path).toAbsolutePath().toString());
+        }
+        classpath.add(versionJarFile.toAbsolutePath().toString());
+
+        // Prepare the asset files the launch relies on (the same locations downloadAssets uses)
+        Path assetIndexFile = FileLocation.ASSETS_FOLDER.resolve("indexes/" + version.getAssetIndex().getId() + ".json").toAbsolutePath();
+        Path assetsFolder = null;
+        if (Boolean.TRUE.equals(assetIndex.mapToResources())) {
+            assetsFolder = runFolder.resolve("resources/");
+        } else if (Boolean.TRUE.equals(assetIndex.isVirtual())) {
+            assetsFolder = FileLocation.ASSETS_FOLDER.resolve("virtual/legacy/").toAbsolutePath();
+        }
+        Path logConfigFile = null;
+        if (version.getLogging() != null) {
+            logConfigFile = FileLocation.ASSETS_FOLDER.resolve("log_configs/" + version.getLogging().getClient().getFile().getId()).toAbsolutePath();
         }
-        classpath[classpath.length - 1] = versionJarFile.toAbsolutePath().toString();
 
         // Prepare launch arguments
-        String arguments = "";
+        List<String> template = new ArrayList<>();
         if (version.getMinecraftArguments() != null) {
-            arguments += "-Djava.library.path=${natives_directory} -cp ${classpath}" + ' ' + version.getMainClass() + ' ' + version.getMinecraftArguments();
+            template.addAll(List.of("-Djava.library.path=${natives_directory}", "-cp", "${classpath}", version.getMainClass()));
+            template.addAll(ArgumentTemplate.split(version.getMinecraftArguments()));
         } else {
-            arguments += version.getArguments().getJvm() + ' ' + version.getMainClass() + ' ' + version.getArguments().getGame();
+            template.addAll(version.getArguments().getJvm());
+            template.add(version.getMainClass());
+            template.addAll(version.getArguments().getGame());
         }
 
-        // Replace argument variables
-        arguments = arguments.replace("${auth_username}", user.getUsername());
-        arguments = arguments.replace("${auth_player_name}", user.getUsername());
-        arguments = arguments.replace("${version_name}", version.getId());
-        arguments = arguments.replace("${game_directory}", '"' + runFolder.toString() + '"');
-        arguments = arguments.replace("${assets_root}", '"' + FileLocation.ASSETS_FOLDER.toAbsolutePath().toString() + '"');
-        assert version.getAssetIndex().getId() != null; // This won't be null for an asset index
-        arguments = arguments.replace("${assets_index_name}", version.getAssetIndex().getId());
-        if (Boolean.TRUE.equals(assetIndex.mapToResources())) {
-            arguments = arguments.replace("${game_assets}", '"' + runFolder.resolve("assets/").toAbsolutePath().toString() + '"');
-        } else if (Boolean.TRUE.equals(assetIndex.isVirtual())) {
-            arguments = arguments.replace("${game_assets}", '"' + FileLocation.ASSETS_FOLDER.resolve("virtual/legacy/").toString() + '"');
-        } else {
-            arguments = arguments.replace("${game_assets}", '"' + FileLocation.ASSETS_FOLDER.toAbsolutePath().toString() + '"');
-        }
-        arguments = arguments.replace("${auth_uuid}", user.getUuid());
-        arguments = arguments.replace("${auth_access_token}", user.getAccessToken());
-        arguments = arguments.replace("${auth_session}", "token:" + user.getAccessToken() + ":" + user.getUuid());
-        arguments = arguments.replace("${user_type}", "mojang");
-        arguments = arguments.replace("${user_properties}", user.getUserProperties());
-        arguments = arguments.replace("${version_type}", version.getType().toString().toLowerCase());
-        arguments = arguments.replace("${natives_directory}", '"' + versionFolder.resolve("natives/").toAbsolutePath().toString() + '"');
-        arguments = arguments.replace("${launcher_name}", "ProtoLauncher");
-        arguments = arguments.replace("${launcher_version}", launcherVersion);
-        arguments = arguments.replace("${classpath}", '"' + String.join(";", classpath) + '"');
-
         // Add resolution arguments
         if (profile.getLaunchSettings().getGameResolutionX() != -1) {
-            arguments += " --width=" + profile.getLaunchSettings().getGameResolutionX();
+            template.add("--width=" + profile.getLaunchSettings().getGameResolutionX());
         }
         if (profile.getLaunchSettings().getGameResolutionY() != -1) {
-            arguments += " --height=" + profile.getLaunchSettings().getGameResolutionY();
+            template.add("--height=" + profile.getLaunchSettings().getGameResolutionY());
         }
 
+        // Prepare argument variables, leaving the user's variables for launch
+        Map<String, String> variables = new HashMap<>();
+        variables.put("version_name", version.getId());
+        variables.put("game_directory", runFolder.toString());
+        variables.put("assets_root", FileLocation.ASSETS_FOLDER.toAbsolutePath().toString());
+        assert version.getAssetIndex().getId() != null; // This won't be null for an asset index
+        variables.put("assets_index_name", version.getAssetIndex().getId());
+        if (Boolean.TRUE.equals(assetIndex.mapToResources())) {
+            variables.put("game_assets", runFolder.resolve("assets/").toAbsolutePath().toString());
+        } else if (Boolean.TRUE.equals(assetIndex.isVirtual())) {
+            variables.put("game_assets", FileLocation.ASSETS_FOLDER.resolve("virtual/legacy/").toAbsolutePath().toString());
+        } else {
+            variables.put("game_assets", FileLocation.ASSETS_FOLDER.toAbsolutePath().toString());
+        }
+        variables.put("user_type", "mojang");
+        variables.put("version_type", version.getType().toString().toLowerCase());
+        variables.put("natives_directory", nativesFolder.toString());
+        variables.put("launcher_name", "ProtoLauncher");
+        variables.put("launcher_version", launcherVersion);
+        variables.put("classpath", String.join(File.pathSeparator, classpath));
+
+        // Replace argument variables in a single pass
+        List<String> arguments = new ArgumentTemplate(template).resolve(variables);
+
         // Add JVM arguments
         if (profile.getLaunchSettings().getJvmArguments() != null) {
-            arguments = profile.getLaunchSettings().getJvmArguments() + " " + arguments;
+            arguments.addAll(0, ArgumentTemplate.split(profile.getLaunchSettings().getJvmArguments()));
         }
 
-        // Prepare the launch command
-        String command;
-        if (javaPath == null) {
-            command = "java -Xdiag " + arguments;
-        } else {
-            command = javaPath + " -Xdiag " + arguments;
+        // Done
+        logger.debug("Launch resolved.");
+        return new ResolvedLaunch(
+            fingerprint,
+            runFolder.toString(),
+            javaPath != null ? javaPath.toString() : null,
+            classpath,
+            nativesFolder.toString(),
+            assetIndexFile.toString(),
+            assetsFolder != null ? assetsFolder.toString() : null,
+            logConfigFile != null ? logConfigFile.toString() : null,
+            arguments
+        );
+    }
+
+    /**
+     * Creates a fingerprint of everything a {@link ResolvedLaunch} for the given profile depends on: the version json
+     * (by its sha1), the modded version, the profile's settings, the launcher version and the system.
+     *
+     * @param profile The {@link Profile} to create the fingerprint for.
+     * @param launcherVersion The version of the launcher.
+     * @return The fingerprint, or null if the profile's versions can't be found in the loaded manifests.
+     */
+    @Nullable
+    public String createLaunchFingerprint(Profile profile, String launcherVersion) {
+        Profile.Version pv = profile.getVersion();
+        VersionInfo info = versionManifest != null ? versionManifest.getVersion(pv.getMinecraft()) : null;
+        if (info == null || info.getSha1() == null) {
+            return null;
         }
-        logger.debug("Full command: " + command);
 
-        // Launch the game
-        ProcessBuilder builder = new ProcessBuilder(command.split(" "));
-        builder.directory(runFolder.toFile());
-        logger.debug("Launched.");
-        return builder.inheritIO().start();
+        // Collect the inputs
+        StringBuilder inputs = new StringBuilder();
+        inputs.append(info.getId()).append('\n').append(info.getSha1()).append('\n');
+        if (pv.getModdedType() != null) {
+            ModdedVersionInfo mvi = moddedVersionManifest != null ? moddedVersionManifest.getVersion(pv.getModdedType(), pv.getMinecraft(), pv.getModded()) : null;
+            if (mvi == null) {
+                return null;
+            }
+            inputs.append(mvi.getType()).append('\n').append(mvi.getMcv()).append('\n').append(mvi.getLv()).append('\n').append(mvi.getUrl()).append('\n');
+        }
+        Profile.LaunchSettings settings = profile.getLaunchSettings();
+        inputs.append(profile.getPath()).append('\n');
+        inputs.append(settings.getGameResolutionX()).append('x').append(settings.getGameResolutionY()).append('\n');
+        inputs.append(settings.getJavaPath()).append('\n');
+        inputs.append(settings.getJvmArguments()).append('\n');
+        inputs.append(launcherVersion).append('\n');
+        inputs.append(ResolvedLaunch.FORMAT).append('\n');
+        inputs.append(SystemInfo.OS_NAME).append('\n').append(SystemInfo.OS_ARCH).append('\n');
+
+        // Hash them
+        MessageDigest digest = Validation.createSha1Digest();
+        return Validation.bytesToHex(digest.digest(inputs.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Loads the cached {@link ResolvedLaunch} for the given profile, if there is one that matches the given fingerprint
+     * and everything it relies on is still on disk.
+     *
+     * @param profile The {@link Profile} to load the resolved launch for.
+     * @param fingerprint The current fingerprint of the profile.
+     * @return The cached {@link ResolvedLaunch}, or null if there is no usable one.
+     * @throws IOException Thrown if reading the cache fails.
+     */
+    @Nullable
+    public ResolvedLaunch loadResolvedLaunch(Profile profile, String fingerprint) throws IOException {
+        Path path = FileLocation.LAUNCH_CACHE_FOLDER.resolve(profile.getUuid() + ".json");
+        if (!Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+            return null;
+        }
+
+        // Parse it, treating a broken cache as no cache
+        ResolvedLaunch resolved;
+        try (BufferedReader reader = Files.newBufferedReader(path)) {
+            resolved = gson.fromJson(reader, ResolvedLaunch.class);
+        } catch (JsonParseException e) {
+            return null;
+        }
+
+        // Check it
+        if (resolved == null || !fingerprint.equals(resolved.getFingerprint()) || !resolved.isIntact()) {
+            return null;
+        }
+        return resolved;
+    }
+
+    /**
+     * Caches the given {@link ResolvedLaunch} for the given profile.
+     * The cache is written to a temporary file first and moved into place, so it is never left half written.
+     *
+     * @param profile The {@link Profile} the launch was resolved for.
+     * @param resolved The {@link ResolvedLaunch} to cache.
+     * @throws IOException Thrown if writing the cache fails.
+     */
+    public void saveResolvedLaunch(Profile profile, ResolvedLaunch resolved) throws IOException {
+        Path path = FileLocation.LAUNCH_CACHE_FOLDER.resolve(profile.getUuid() + ".json");
+        new SafeFileStore(logger, path, 0).write(gson.toJson(resolved));
     }
 
     /**
@@ -1786,4 +2173,14 @@ public class ProtoLauncher {
         }
     }
 
+    /**
+     * A task run on the background executor.
+     */
+    @FunctionalInterface
+    private interface BackgroundTask {
+
+        void run() throws IOException;
+
+    }
+
 }
@@ -0,0 +1,147 @@
+package net.protolauncher.api;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Represents everything that was worked out to launch a profile, so it doesn't have to be worked out again.
+ * <br/><br/>
+ * The arguments are kept as separate arguments, and have every variable substituted except for the ones belonging to
+ * the user (see {@link ResolvedLaunch#getUserVariables(User)}), which are only substituted right before launching. This means
+ * a resolved launch never contains an access token and can safely be cached to disk. The fingerprint identifies the
+ * inputs it was resolved from (including {@link ResolvedLaunch#FORMAT}); if the fingerprint of a profile changes,
+ * the resolved launch for it is stale.
+ */
+public class ResolvedLaunch {
+
+    // Constants
+    public static final int FORMAT = 2;
+
+    // JSON Properties
+    private String fingerprint;
+    private String runFolder;
+    @Nullable
+    private String javaPath;
+    private List<String> classpath;
+    private String nativesFolder;
+    private String assetIndexFile;
+    @Nullable
+    private String assetsFolder;
+    @Nullable
+    private String logConfigFile;
+    private List<String> arguments;
+
+    // Suppress default constructor
+    private ResolvedLaunch() { }
+
+    /**
+     * Constructs a new resolved launch.
+     *
+     * @param fingerprint The fingerprint of the inputs this launch was resolved from.
+     * @param runFolder The folder the game is run in.
+     * @param javaPath The Java executable to launch with, or null to use the one on the path.
+     * @param classpath The absolute paths of every jar on the classpath.
+     * @param nativesFolder The absolute path to the natives folder.
+     * @param assetIndexFile The absolute path to the asset index file.
+     * @param assetsFolder The absolute path to the folder the assets were materialized into for a virtual or
+     *                     resource-mapped asset index, or null if the assets are used from where they are stored.
+     * @param logConfigFile The absolute path to the log config file, or null if the version has none.
+     * @param arguments The launch arguments with every non-user variable substituted.
+     */
+    public ResolvedLaunch(String fingerprint, String runFolder, @Nullable String javaPath, List<String> classpath, String nativesFolder, String assetIndexFile, @Nullable String assetsFolder, @Nullable String logConfigFile, List<String> arguments) {
+        this.fingerprint = fingerprint;
+        this.runFolder = runFolder;
+        this.javaPath = javaPath;
+        this.classpath = classpath;
+        this.nativesFolder = nativesFolder;
+        this.assetIndexFile = assetIndexFile;
+        this.assetsFolder = assetsFolder;
+        this.logConfigFile = logConfigFile;
+        this.arguments = arguments;
+    }
+
+    // Getters
+    public String getFingerprint() {
+        return fingerprint;
+    }
+    public String getRunFolder() {
+        return runFolder;
+    }
+    @Nullable
+    public String getJavaPath() {
+        return javaPath;
+    }
+    public List<String> getClasspath() {
+        return classpath;
+    }
+    public String getNativesFolder() {
+        return nativesFolder;
+    }
+    public String getAssetIndexFile() {
+        return assetIndexFile;
+    }
+    @Nullable
+    public String getAssetsFolder() {
+        return assetsFolder;
+    }
+    @Nullable
+    public String getLogConfigFile() {
+        return logConfigFile;
+    }
+    public List<String> getArguments() {
+        return arguments;
+    }
+
+    /**
+     * Checks that everything this launch relies on is still on disk: the Java executable, the natives folder,
+     * every jar on the classpath, the asset index, the folder the assets were materialized into, and the log config.
+     * The assets themselves are not checked, as that would mean checking thousands of files.
+     *
+     * @return <code>true</code> if everything still exists, otherwise <code>false</code>.
+     */
+    public boolean isIntact() {
+        if (javaPath != null && !Files.exists(Path.of(javaPath), LinkOption.NOFOLLOW_LINKS)) {
+            return false;
+        }
+        if (!Files.isDirectory(Path.of(nativesFolder), LinkOption.NOFOLLOW_LINKS)) {
+            return false;
+        }
+        for (String entry : classpath) {
+            if (!Files.exists(Path.of(entry), LinkOption.NOFOLLOW_LINKS)) {
+                return false;
+            }
+        }
+        if (assetIndexFile == null || !Files.exists(Path.of(assetIndexFile), LinkOption.NOFOLLOW_LINKS)) {
+            return false;
+        }
+        if (assetsFolder != null && !Files.isDirectory(Path.of(assetsFolder), LinkOption.NOFOLLOW_LINKS)) {
+            return false;
+        }
+        return logConfigFile == null || Files.exists(Path.of(logConfigFile), LinkOption.NOFOLLOW_LINKS);
+    }
+
+    /**
+     * Gets the variables belonging to the given user, which are left in the arguments of a resolved launch
+     * and only substituted right before launching.
+     *
+     * @param user The {@link User} that is launching.
+     * @return The value of every user variable, by name.
+     */
+    public static Map<String, String> getUserVariables(User user) {
+        Map<String, String> variables = new HashMap<>();
+        variables.put("auth_username", user.getUsername());
+        variables.put("auth_player_name", user.getUsername());
+        variables.put("auth_uuid", user.getUuid());
+        variables.put("auth_access_token", user.getAccessToken());
+        variables.put("auth_session", "token:" + user.getAccessToken() + ":" + user.getUuid());
+        variables.put("user_properties", user.getUserProperties());
+        return variables;
+    }
+
+}
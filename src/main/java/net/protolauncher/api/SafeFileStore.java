@@ -0,0 +1,249 @@
+package net.protolauncher.api;
+
+import net.protolauncher.log4j.FeedbackLoggerWrapper;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Stores a single file so that a crash never leaves it unreadable.
+ * <br/><br/>
+ * Writing never touches the live file: the new contents go to a temporary file next to it, which is synced to disk
+ * and then moved over the live file in one step. Before that, the previous versions of the file are kept as numbered
+ * generations (<code>profiles.json.1</code> being the newest), so if the live file is ever broken anyway (a crash
+ * mid-write on a file system without atomic moves, or a disk that lied about syncing), loading falls back to the newest
+ * generation that can still be read and puts it back in place of the broken one.
+ * <br/><br/>
+ * The newest generation is hard linked (or copied) from the live file rather than moved, so the live file exists at
+ * every point of a write, even if the write fails halfway through. Temporary files left behind by a crash are deleted
+ * the next time the file is read.
+ */
+public class SafeFileStore {
+
+    // References
+    private final FeedbackLoggerWrapper logger;
+
+    // Variables
+    private final Path path;
+    private final int generations;
+
+    /**
+     * Constructs a new safe file store.
+     *
+     * @param logger The logger to report recoveries to.
+     * @param path The location of the live file.
+     * @param generations How many previous versions of the file to keep.
+     */
+    public SafeFileStore(FeedbackLoggerWrapper logger, Path path, int generations) {
+        this.logger = logger;
+        this.path = path;
+        this.generations = generations;
+    }
+
+    // Getters
+    public Path getPath() {
+        return path;
+    }
+    public int getGenerations() {
+        return generations;
+    }
+
+    /**
+     * Reads the file, falling back to the newest previous generation that can be read if the live file can't be.
+     * If a previous generation had to be used, it is restored as the live file.
+     *
+     * @param reader Parses the file, returning null or throwing if the contents are not valid.
+     * @return The parsed file, or null if neither the file nor any previous generation of it exists.
+     * @throws IOException Thrown if the file exists but none of its generations could be read.
+     */
+    @Nullable
+    public <T> T read(Reader<T> reader) throws IOException {
+        this.deleteStaleTemps();
+        IOException failure = null;
+        for (int generation = 0; generation <= generations; generation++) {
+            Path location = this.locate(generation);
+            T value;
+            try (BufferedReader in = Files.newBufferedReader(location, StandardCharsets.UTF_8)) {
+                value = reader.read(in);
+            } catch (NoSuchFileException e) {
+                continue;
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Unable to read " + location + ": " + e.getMessage());
+                if (failure == null) {
+                    failure = new IOException("Unable to read " + path + " or any previous generation of it", e);
+                }
+                continue;
+            }
+            if (value == null) {
+                logger.warn("Unable to read " + location + ": it is empty");
+                if (failure == null) {
+                    failure = new IOException("Unable to read " + path + " or any previous generation of it");
+                }
+                continue;
+            }
+
+            // Put a recovered generation back in place of the live file
+            if (generation > 0) {
+                logger.warn("Recovered " + path + " from " + location + ".");
+                this.replace(Files.readString(location, StandardCharsets.UTF_8));
+            }
+            return value;
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return null;
+    }
+
+    /**
+     * Writes the file, keeping the current one as the newest previous generation.
+     *
+     * @param contents The new contents of the file.
+     * @throws IOException Thrown if writing the file fails, in which case the live file is left as it was.
+     */
+    public void write(String contents) throws IOException {
+        Path folder = this.getFolder();
+        Files.createDirectories(folder);
+        Path temp = this.writeTemp(folder, contents);
+        try {
+            // Shift every previous generation down one, dropping the oldest,
+            // then keep the live file as the newest one without moving it out of place
+            if (generations > 0) {
+                Files.deleteIfExists(this.locate(generations));
+                for (int generation = generations - 1; generation >= 1; generation--) {
+                    Path location = this.locate(generation);
+                    if (Files.exists(location, LinkOption.NOFOLLOW_LINKS)) {
+                        move(location, this.locate(generation + 1));
+                    }
+                }
+                if (Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+                    keep(path, this.locate(1));
+                }
+            }
+
+            // Put the new file in place
+            move(temp, path);
+            syncFolder(folder);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Replaces the live file without touching the previous generations.
+     */
+    private void replace(String contents) throws IOException {
+        Path folder = this.getFolder();
+        Path temp = this.writeTemp(folder, contents);
+        try {
+            move(temp, path);
+            syncFolder(folder);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Writes the given contents to a new temporary file in the given folder and syncs it to disk.
+     */
+    private Path writeTemp(Path folder, String contents) throws IOException {
+        Path temp = Files.createTempFile(folder, path.getFileName().toString(), ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING, LinkOption.NOFOLLOW_LINKS)) {
+            ByteBuffer buffer = StandardCharsets.UTF_8.encode(contents);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        return temp;
+    }
+
+    /**
+     * Deletes the temporary files of this store that were left behind by a write that never finished.
+     * Temporary files are named after the live file, followed by random digits and <code>.tmp</code>.
+     */
+    private void deleteStaleTemps() {
+        Path folder = this.getFolder();
+        String prefix = path.getFileName().toString();
+        DirectoryStream.Filter<Path> filter = entry -> {
+            String name = entry.getFileName().toString();
+            return name.startsWith(prefix) && name.endsWith(".tmp") && name.length() > prefix.length() + 4
+                && name.substring(prefix.length(), name.length() - 4).chars().allMatch(Character::isDigit);
+        };
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(folder, filter)) {
+            for (Path temp : stream) {
+                logger.debug("Deleting stale temporary file " + temp + ".");
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            // The folder doesn't exist yet, or a temporary file is in use; either way they can be cleaned up next time
+        }
+    }
+
+    // Finds the location of the given generation, where 0 is the live file.
+    private Path locate(int generation) {
+        return generation == 0 ? path : path.resolveSibling(path.getFileName() + "." + generation);
+    }
+
+    // Gets the folder the file is in.
+    private Path getFolder() {
+        return path.toAbsolutePath().getParent();
+    }
+
+    // Moves a file over another one, atomically if the file system allows it.
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // Keeps a copy of a file at another location, hard linking it if the file system allows it.
+    private static void keep(Path source, Path target) throws IOException {
+        try {
+            Files.deleteIfExists(target);
+            Files.createLink(target, source);
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Syncs the given folder, so the moves in it are on disk too. Not every platform can open a folder to sync it
+     * (Windows can't), in which case this does nothing, as the moves there are already as durable as they get.
+     */
+    private static void syncFolder(Path folder) {
+        try (FileChannel channel = FileChannel.open(folder, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Not supported here
+        }
+    }
+
+    /**
+     * Parses the contents of a file.
+     */
+    @FunctionalInterface
+    public interface Reader<T> {
+        @Nullable
+        T read(BufferedReader reader) throws IOException;
+    }
+
+}
@@ -0,0 +1,128 @@
+package net.protolauncher.api;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Stores parsed files in a compact binary form, so they don't have to be parsed from JSON again on every launch.
+ * <br/><br/>
+ * Every snapshot is stored as <code>&lt;kind&gt;/&lt;name&gt;.bin</code> and starts with a header holding the
+ * snapshot format and the sha1 of the file it was made from. If the file has changed since (or the format has),
+ * the snapshot is stale and {@link SnapshotCache#load(String, String, String, SnapshotReader)} returns null, at
+ * which point the caller parses the file again and saves a new snapshot over the old one. A snapshot that can't be
+ * read for any reason is treated the same way, since it can always be made again.
+ */
+public class SnapshotCache {
+
+    // Constants
+    private static final int MAGIC = 0x50534E50; // "PSNP"
+    private static final int FORMAT = 3;
+
+    // Variables
+    private final Path folder;
+
+    /**
+     * Constructs a new snapshot cache.
+     *
+     * @param folder The folder the snapshots are stored in.
+     */
+    public SnapshotCache(Path folder) {
+        this.folder = folder;
+    }
+
+    // Getters
+    public Path getFolder() {
+        return folder;
+    }
+
+    /**
+     * Loads the snapshot of the given kind and name, if there is one that was made from a file with the given sha1.
+     *
+     * @param kind The kind of snapshot, used as its folder.
+     * @param name The name of the snapshot.
+     * @param sha1 The sha1 of the file the snapshot has to be made from.
+     * @param reader Reads the snapshot's contents.
+     * @return The loaded snapshot, or null if there is no usable one.
+     */
+    @Nullable
+    public <T> T load(String kind, String name, String sha1, SnapshotReader<T> reader) {
+        Path path = this.locate(kind, name);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path, LinkOption.NOFOLLOW_LINKS)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT || !sha1.equalsIgnoreCase(in.readUTF())) {
+                return null;
+            }
+            return reader.read(in);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            // A broken snapshot is just a stale one
+            return null;
+        }
+    }
+
+    /**
+     * Saves a snapshot of the given kind and name, made from a file with the given sha1.
+     * The snapshot is written to a temporary file first, so a snapshot is never left half written.
+     *
+     * @param kind The kind of snapshot, used as its folder.
+     * @param name The name of the snapshot.
+     * @param sha1 The sha1 of the file the snapshot was made from.
+     * @param writer Writes the snapshot's contents.
+     * @throws IOException Thrown if writing the snapshot fails.
+     */
+    public void save(String kind, String name, String sha1, SnapshotWriter writer) throws IOException {
+        Path path = this.locate(kind, name);
+        Files.createDirectories(path.getParent());
+        Path temp = Files.createTempFile(path.getParent(), name, ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp, LinkOption.NOFOLLOW_LINKS)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT);
+                out.writeUTF(sha1.toLowerCase());
+                writer.write(out);
+            }
+            try {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Finds the path of the snapshot of the given kind and name.
+    private Path locate(String kind, String name) {
+        return folder.resolve(kind + "/" + name + ".bin");
+    }
+
+    /**
+     * Reads the contents of a snapshot.
+     */
+    @FunctionalInterface
+    public interface SnapshotReader<T> {
+        T read(DataInput in) throws IOException;
+    }
+
+    /**
+     * Writes the contents of a snapshot.
+     */
+    @FunctionalInterface
+    public interface SnapshotWriter {
+        void write(DataOutput out) throws IOException;
+    }
+
+}
@@ -0,0 +1,188 @@
+package net.protolauncher.api;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads everything the launcher needs before it can be shown.
+ * <br/><br/>
+ * Only the configuration has to be loaded first, as everything else depends on it. After that, both version manifests,
+ * the users and the profiles are loaded at the same time, and the latest profiles of the current user are checked as
+ * soon as the users, the profiles and the version manifest are ready. Starting up then takes as long as the slowest
+ * load instead of the sum of all of them. The current user is not validated here, as that can take several requests;
+ * instead, it is validated in the background by the {@link UserValidationService} once the users are loaded.
+ */
+public class StartupOrchestrator {
+
+    // References
+    private final ProtoLauncher launcher;
+
+    /**
+     * Constructs a new startup orchestrator.
+     *
+     * @param launcher The {@link ProtoLauncher} to load.
+     */
+    public StartupOrchestrator(ProtoLauncher launcher) {
+        this.launcher = launcher;
+    }
+
+    /**
+     * Runs every step of the startup and blocks until all of them are done.
+     * The configuration is loaded on the calling thread, every other step on its own thread.
+     *
+     * @param listener Notified of the combined progress of every step. Called from the step threads.
+     * @throws IOException Thrown if any of the steps fail.
+     */
+    public void execute(Listener listener) throws IOException {
+        Progress progress = new Progress(listener);
+
+        // The configuration comes first, as every other step reads from it
+        launcher.loadConfig();
+        progress.complete(Step.CONFIG);
+
+        AtomicInteger count = new AtomicInteger();
+        ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable);
+            thread.setName("Startup Step #" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            // Everything that only depends on the configuration
+            CompletableFuture<Void> versionManifest = this.step(progress, Step.VERSION_MANIFEST, executor, () -> {
+                launcher.loadVersionManifest((total, transferred) -> progress.update(Step.VERSION_MANIFEST, total, transferred));
+            });
+            CompletableFuture<Void> moddedVersionManifest = this.step(progress, Step.MODDED_VERSION_MANIFEST, executor, () -> {
+                launcher.loadModdedVersionManifest((total, transferred) -> progress.update(Step.MODDED_VERSION_MANIFEST, total, transferred));
+            });
+            CompletableFuture<Void> users = this.step(progress, Step.USERS, executor, () -> {
+                launcher.loadUsers();
+                User user = launcher.getCurrentUser();
+                if (user != null) {
+                    launcher.getUserValidation().validate(user.getUuid());
+                }
+            });
+            CompletableFuture<Void> profiles = this.step(progress, Step.PROFILES, executor, launcher::loadProfiles);
+
+            // Check the latest profiles of the current user, which needs the version manifest
+            CompletableFuture<Void> latestProfiles = CompletableFuture.allOf(versionManifest, users, profiles).thenComposeAsync(ignored -> {
+                return this.step(progress, Step.LATEST_PROFILES, executor, () -> {
+                    User user = launcher.getCurrentUser();
+                    if (user != null) {
+                        launcher.checkLatestProfiles(user.getUuid());
+                    }
+                });
+            }, executor);
+
+            // Wait for everything
+            CompletableFuture.allOf(moddedVersionManifest, latestProfiles).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while starting up!", e);
+        } catch (ExecutionException e) {
+            Throwable cause = LaunchPlan.unwrap(e);
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else {
+                throw new IOException(cause);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Creates the future for a single step, which marks the step as complete once its action is done.
+     */
+    private CompletableFuture<Void> step(Progress progress, Step step, Executor executor, StepAction action) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                action.run();
+                progress.complete(step);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Represents a single step of the startup.
+     */
+    public enum Step {
+        CONFIG,
+        VERSION_MANIFEST,
+        MODDED_VERSION_MANIFEST,
+        USERS,
+        PROFILES,
+        LATEST_PROFILES
+    }
+
+    /**
+     * Listens to the progress of a {@link StartupOrchestrator}. Steps run concurrently, so implementations must be thread safe.
+     */
+    @FunctionalInterface
+    public interface Listener {
+
+        void progress(double workDone, double max);
+
+    }
+
+    /**
+     * The work done by a single step.
+     */
+    @FunctionalInterface
+    private interface StepAction {
+
+        void run() throws IOException;
+
+    }
+
+    /**
+     * Keeps track of how far along every step is and reports the sum of them to a listener.
+     */
+    private static class Progress {
+
+        // Variables
+        private final Listener listener;
+        private final double[] steps = new double[Step.values().length];
+
+        // Constructor
+        public Progress(Listener listener) {
+            this.listener = listener;
+        }
+
+        /**
+         * Updates the progress of a step from a download, ignoring downloads of unknown size.
+         */
+        public void update(Step step, @Nullable Long total, @Nullable Long transferred) {
+            if (total != null && transferred != null && total > 0) {
+                this.set(step, Math.min(1.0, transferred / (double) total));
+            }
+        }
+
+        /**
+         * Marks a step as complete.
+         */
+        public void complete(Step step) {
+            this.set(step, 1.0);
+        }
+
+        private void set(Step step, double value) {
+            synchronized (steps) {
+                steps[step.ordinal()] = value;
+                double workDone = 0;
+                for (double done : steps) {
+                    workDone += done;
+                }
+                listener.progress(workDone, steps.length);
+            }
+        }
+
+    }
+
+}
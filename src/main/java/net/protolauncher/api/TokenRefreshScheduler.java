@@ -0,0 +1,144 @@
+package net.protolauncher.api;
+
+import net.protolauncher.api.User.MicrosoftInfo;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Refreshes the Microsoft logins of every user before they expire, so launching never has to wait for a refresh.
+ * <br/><br/>
+ * Every user with a Microsoft login gets a refresh scheduled a lead time before their login expires, minus a random
+ * jitter so users that logged in at the same time don't all refresh at the same moment. The refreshes themselves
+ * run through the {@link UserValidationService}, so they run concurrently across users but never twice at once for
+ * the same user. Mojang logins don't say when they expire, so they are left alone.
+ */
+public class TokenRefreshScheduler {
+
+    // Constants
+    private static final Duration MAX_JITTER = Duration.ofMinutes(5);
+    private static final Duration RETRY_DELAY = Duration.ofMinutes(5);
+
+    // References
+    private final ProtoLauncher launcher;
+
+    // Variables
+    private final ScheduledExecutorService timer;
+    private final Map<String, ScheduledFuture<?>> scheduled = new ConcurrentHashMap<>();
+    private volatile Duration leadTime;
+
+    /**
+     * Constructs a new token refresh scheduler.
+     *
+     * @param launcher The {@link ProtoLauncher} to refresh the users of.
+     * @param leadTime How long before a login expires to refresh it.
+     */
+    public TokenRefreshScheduler(ProtoLauncher launcher, Duration leadTime) {
+        this.launcher = launcher;
+        this.leadTime = leadTime;
+        AtomicInteger count = new AtomicInteger();
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable);
+            thread.setName("Token Refresh Scheduler #" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Getters
+    public Duration getLeadTime() {
+        return leadTime;
+    }
+
+    // Setters
+    public void setLeadTime(Duration leadTime) {
+        this.leadTime = leadTime;
+    }
+
+    /**
+     * Schedules a refresh for every user, replacing any refreshes that were already scheduled.
+     */
+    public void scheduleAll() {
+        for (User user : launcher.getAllUsers()) {
+            this.schedule(user);
+        }
+    }
+
+    /**
+     * Schedules a refresh for the given user ahead of their login expiring, replacing the one already scheduled for them.
+     * If their login is already about to expire, it is refreshed right away.
+     *
+     * @param user The user to schedule a refresh for.
+     */
+    public void schedule(User user) {
+        this.schedule(user, Duration.ZERO);
+    }
+
+    /**
+     * Cancels the refresh scheduled for the user with the given uuid, if there is one.
+     *
+     * @param uuid The uuid of the user.
+     */
+    public void cancel(String uuid) {
+        ScheduledFuture<?> future = scheduled.remove(uuid);
+        if (future != null) {
+            future.cancel(false);
+        }
+    }
+
+    /**
+     * Schedules a refresh for the given user, waiting at least the given delay.
+     */
+    private void schedule(User user, Duration minimumDelay) {
+        MicrosoftInfo mci = user.getMicrosoftInfo();
+        if (mci == null) {
+            this.cancel(user.getUuid());
+            return;
+        }
+        long delay = Math.max(this.getRefreshTime(mci) - System.currentTimeMillis(), minimumDelay.toMillis());
+        ScheduledFuture<?> previous = scheduled.put(user.getUuid(), timer.schedule(() -> this.refresh(user.getUuid()), delay, TimeUnit.MILLISECONDS));
+        if (previous != null) {
+            previous.cancel(false);
+        }
+    }
+
+    /**
+     * Refreshes the user with the given uuid if their login is due, then schedules their next refresh.
+     * A login can be refreshed elsewhere in the meantime, in which case this only reschedules it.
+     */
+    private void refresh(String uuid) {
+        User user = launcher.getUser(uuid);
+        if (user == null || user.getMicrosoftInfo() == null) {
+            scheduled.remove(uuid);
+            return;
+        }
+        if (this.getRefreshTime(user.getMicrosoftInfo()) > System.currentTimeMillis() + MAX_JITTER.toMillis()) {
+            this.schedule(user);
+            return;
+        }
+
+        // Once the refresh is done, schedule the next one, backing off if it didn't work
+        launcher.getLoggerWrapper().debug("Refreshing the login for " + user.getUsername() + " ahead of it expiring...");
+        launcher.getUserValidation().refresh(uuid).whenComplete((refreshed, throwable) -> {
+            User current = launcher.getUser(uuid);
+            if (current != null) {
+                this.schedule(current, throwable == null && refreshed ? Duration.ZERO : RETRY_DELAY);
+            }
+        });
+    }
+
+    /**
+     * Calculates when the given login should be refreshed: the lead time before it expires, minus a random jitter.
+     *
+     * @param mci The Microsoft login.
+     * @return The time to refresh at, in milliseconds since the epoch.
+     */
+    private long getRefreshTime(MicrosoftInfo mci) {
+        long lead = leadTime.toMillis();
+        long jitter = ThreadLocalRandom.current().nextLong(Math.min(MAX_JITTER.toMillis(), lead / 2) + 1);
+        return mci.getDateExpires() - lead - jitter;
+    }
+
+}
@@ -1,6 +1,7 @@
 package net.protolauncher.api;
 
 import com.google.gson.annotations.Since;
+import net.protolauncher.mojang.auth.MicrosoftTokenCache;
 import org.jetbrains.annotations.Nullable;
 
 public class User {
@@ -102,6 +103,12 @@ public class User {
         private String xstsToken;
         @Since(1.0)
         private long dateExpires;
+        @Since(1.0)
+        private long accessTokenExpires;
+        @Since(1.0)
+        private long xblTokenExpires;
+        @Since(1.0)
+        private long xstsTokenExpires;
 
         /**
          * Constructs a new MicrosoftInfo with all the necessary data.
@@ -122,6 +129,15 @@ public class User {
             this.dateExpires = dateExpires;
         }
 
+        /**
+         * Constructs a new MicrosoftInfo from the tokens in the given cache.
+         *
+         * @param cache The {@link MicrosoftTokenCache} to take the tokens from.
+         */
+        public MicrosoftInfo(MicrosoftTokenCache cache) {
+            this.update(cache);
+        }
+
         // Getters
         public String getAccessToken() {
             return accessToken;
@@ -141,6 +157,15 @@ public class User {
         public long getDateExpires() {
             return dateExpires;
         }
+        public long getAccessTokenExpires() {
+            return accessTokenExpires;
+        }
+        public long getXblTokenExpires() {
+            return xblTokenExpires;
+        }
+        public long getXstsTokenExpires() {
+            return xstsTokenExpires;
+        }
 
         // Setters
         public void setAccessToken(String accessToken) {
@@ -162,6 +187,34 @@ public class User {
             this.dateExpires = dateExpires;
         }
 
+        /**
+         * Creates a {@link MicrosoftTokenCache} with the tokens of this info.
+         * Tokens stored before their expiries were tracked have an expiry of zero, so they count as expired.
+         *
+         * @param minecraftToken The Minecraft access token, which is stored on the user rather than here.
+         * @return A new {@link MicrosoftTokenCache}.
+         */
+        public MicrosoftTokenCache toTokenCache(String minecraftToken) {
+            return new MicrosoftTokenCache(accessToken, refreshToken, accessTokenExpires, xblToken, xblUhs, xblTokenExpires, xstsToken, xstsTokenExpires, minecraftToken, dateExpires);
+        }
+
+        /**
+         * Updates this info with the tokens in the given cache.
+         *
+         * @param cache The {@link MicrosoftTokenCache} to take the tokens from.
+         */
+        public void update(MicrosoftTokenCache cache) {
+            this.accessToken = cache.getMicrosoftToken();
+            this.refreshToken = cache.getRefreshToken();
+            this.accessTokenExpires = cache.getMicrosoftExpires();
+            this.xblToken = cache.getXblToken();
+            this.xblUhs = cache.getXblUhs();
+            this.xblTokenExpires = cache.getXblExpires();
+            this.xstsToken = cache.getXstsToken();
+            this.xstsTokenExpires = cache.getXstsExpires();
+            this.dateExpires = cache.getMinecraftExpires();
+        }
+
     }
 
 }
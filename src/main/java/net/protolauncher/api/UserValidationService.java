@@ -0,0 +1,144 @@
+package net.protolauncher.api;
+
+import net.protolauncher.api.User.MicrosoftInfo;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Validates users in the background so nothing has to wait for it.
+ * <br/><br/>
+ * Validating a Microsoft account can take up to six requests one after another, so users are used as they were cached
+ * and validated on the side. Only if a Microsoft login has actually expired does anything wait for it, and only when
+ * it is about to be used to launch. Validations of the same user are shared, so asking for a validation that is
+ * already running just waits for the running one.
+ */
+public class UserValidationService {
+
+    // References
+    private final ProtoLauncher launcher;
+    private final Executor executor;
+
+    // The validation that is currently running for each user
+    private final Map<String, CompletableFuture<Boolean>> running = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new user validation service.
+     *
+     * @param launcher The {@link ProtoLauncher} to validate the users of.
+     * @param executor The executor to validate users on.
+     */
+    public UserValidationService(ProtoLauncher launcher, Executor executor) {
+        this.launcher = launcher;
+        this.executor = executor;
+    }
+
+    /**
+     * Starts validating the user with the given uuid in the background, or joins the validation already running for them.
+     *
+     * @param uuid The uuid of the user to validate.
+     * @return A {@link CompletableFuture} for whether the user is valid.
+     * @see ProtoLauncher#validateUser(String)
+     */
+    public CompletableFuture<Boolean> validate(String uuid) {
+        return this.run(uuid, "validate", () -> launcher.validateUser(uuid));
+    }
+
+    /**
+     * Starts refreshing the Microsoft login of the user with the given uuid in the background, even if it hasn't expired yet,
+     * or joins the validation or refresh already running for them.
+     *
+     * @param uuid The uuid of the user to refresh.
+     * @return A {@link CompletableFuture} for whether the login was refreshed.
+     * @see ProtoLauncher#refreshUserMicrosoft(User)
+     */
+    public CompletableFuture<Boolean> refresh(String uuid) {
+        return this.run(uuid, "refresh", () -> {
+            User user = launcher.getUser(uuid);
+            if (user == null || user.getMicrosoftInfo() == null || launcher.refreshUserMicrosoft(user) == null) {
+                return false;
+            }
+            launcher.saveUsers();
+            return true;
+        });
+    }
+
+    /**
+     * Runs the given action for the given user on the executor, unless an action is already running for them,
+     * in which case that one is joined instead. Only one action runs for a user at a time, so a login is never
+     * refreshed twice at once.
+     */
+    private CompletableFuture<Boolean> run(String uuid, String description, UserAction action) {
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        CompletableFuture<Boolean> existing = running.putIfAbsent(uuid, future);
+        if (existing != null) {
+            return existing;
+        }
+        executor.execute(() -> {
+            try {
+                boolean result = action.run();
+                running.remove(uuid, future);
+                future.complete(result);
+            } catch (IOException | RuntimeException e) {
+                launcher.getLoggerWrapper().warn("Unable to " + description + " user " + uuid + ": " + e.getMessage());
+                running.remove(uuid, future);
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Checks whether the login of the given user is known to have expired.
+     * Only Microsoft logins know when they expire; a Mojang login is assumed to be fine until the server says otherwise.
+     *
+     * @param user The user to check.
+     * @return <code>true</code> if the login has expired, otherwise <code>false</code>.
+     */
+    public boolean isExpired(User user) {
+        MicrosoftInfo mci = user.getMicrosoftInfo();
+        return mci != null && System.currentTimeMillis() >= mci.getDateExpires();
+    }
+
+    /**
+     * Makes sure the given user can be launched with, blocking only if their login has expired.
+     * In that case the user is validated (which refreshes the login), joining a validation that is already running.
+     *
+     * @param user The user about to be launched with.
+     * @throws IOException Thrown if the login has expired and could not be refreshed.
+     */
+    public void awaitUsable(User user) throws IOException {
+        if (!this.isExpired(user)) {
+            return;
+        }
+        launcher.getLoggerWrapper().debug("Login for " + user.getUsername() + " has expired, waiting for it to be refreshed...");
+        boolean valid;
+        try {
+            valid = this.validate(user.getUuid()).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while refreshing the login for " + user.getUsername() + "!", e);
+        } catch (ExecutionException e) {
+            Throwable cause = LaunchPlan.unwrap(e);
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        }
+        if (!valid || this.isExpired(user)) {
+            throw new IOException("The login for " + user.getUsername() + " has expired and could not be refreshed. Please log in again.");
+        }
+    }
+
+    /**
+     * An action run for a single user.
+     */
+    @FunctionalInterface
+    private interface UserAction {
+
+        boolean run() throws IOException;
+
+    }
+
+}
@@ -0,0 +1,321 @@
+package net.protolauncher.api.download;
+
+import net.protolauncher.api.function.DownloadProgressConsumer;
+import net.protolauncher.api.function.StepInfoConsumer;
+import net.protolauncher.api.function.StepProgressConsumer;
+import net.protolauncher.util.Network;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Schedules downloads across a bounded amount of workers per host.
+ * <br/><br/>
+ * Each host gets its own pool of workers, so a slow host can't starve the others, and idle workers
+ * are let go after a while so an idle launcher doesn't keep threads around. Downloads are submitted
+ * through a {@link Batch}, which reports the aggregate progress of everything submitted to it.
+ */
+public class DownloadScheduler {
+
+    // Constants
+    private static final long WORKER_KEEP_ALIVE_SECONDS = 30;
+
+    // Variables
+    private final Map<String, ThreadPoolExecutor> executors;
+    private final VerificationJournal journal;
+    private volatile RetryPolicy retryPolicy;
+    private int workersPerHost;
+
+    /**
+     * Constructs a new download scheduler.
+     *
+     * @param workersPerHost The maximum amount of simultaneous downloads from a single host.
+     * @param retryPolicy The {@link RetryPolicy} for failed downloads.
+     * @param journal The {@link VerificationJournal} used to validate files that already exist.
+     */
+    public DownloadScheduler(int workersPerHost, RetryPolicy retryPolicy, VerificationJournal journal) {
+        this.executors = new HashMap<>();
+        this.journal = journal;
+        this.retryPolicy = retryPolicy;
+        this.workersPerHost = Math.max(1, workersPerHost);
+    }
+
+    // Getters
+    public int getWorkersPerHost() {
+        return workersPerHost;
+    }
+    public VerificationJournal getJournal() {
+        return journal;
+    }
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    // Setters
+    public void setRetryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+    public synchronized void setWorkersPerHost(int workersPerHost) {
+        int workers = Math.max(1, workersPerHost);
+        for (ThreadPoolExecutor executor : executors.values()) {
+            // The maximum pool size can never drop below the core pool size, so order matters here
+            if (workers > executor.getMaximumPoolSize()) {
+                executor.setMaximumPoolSize(workers);
+                executor.setCorePoolSize(workers);
+            } else {
+                executor.setCorePoolSize(workers);
+                executor.setMaximumPoolSize(workers);
+            }
+        }
+        this.workersPerHost = workers;
+    }
+
+    /**
+     * Makes sure the file of the given task exists and is valid, downloading it on the calling thread if it doesn't.
+     * An existing file that fails validation is deleted and downloaded again, and failed downloads are retried
+     * according to the {@link RetryPolicy}. The completion handler of the task is not called.
+     *
+     * @param task The {@link DownloadTask} to fetch.
+     * @param progressUpdate Called every time there is a progress update in downloading the file.
+     * @throws IOException Thrown if the file could not be downloaded and validated.
+     */
+    public void fetch(DownloadTask task, Consumer<Long> progressUpdate) throws IOException {
+        Path path = task.getPath();
+        String sha1 = task.getSha1();
+
+        // Use the existing file if it is valid, otherwise get rid of it
+        if (Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+            if (sha1 == null || journal.validate(path, sha1)) {
+                return;
+            }
+            Files.delete(path);
+        }
+
+        // Download, validating as it is written
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        retryPolicy.execute(task.getUrl(), url -> Network.download(url, path, sha1, progressUpdate));
+        if (sha1 != null) {
+            journal.record(path, sha1);
+        }
+    }
+
+    /**
+     * Creates a new batch of downloads. All consumers are optional and will be called from the download workers.
+     *
+     * @param stepProgress Called every time a download in the batch completes.
+     * @param stepInfo Called with the name of every download in the batch as it completes.
+     * @param downloadProgress Called to show the aggregate download progress of the batch.
+     * @return A new {@link Batch}.
+     */
+    public Batch newBatch(@Nullable StepProgressConsumer stepProgress, @Nullable StepInfoConsumer stepInfo, @Nullable DownloadProgressConsumer downloadProgress) {
+        return new Batch(stepProgress, stepInfo, downloadProgress);
+    }
+
+    /**
+     * Fetches the executor for the given host, creating one if it does not exist yet.
+     *
+     * @param host The host to fetch the executor for.
+     * @return The {@link ThreadPoolExecutor} for the host.
+     */
+    private synchronized ThreadPoolExecutor getExecutor(String host) {
+        return executors.computeIfAbsent(host, key -> {
+            AtomicInteger count = new AtomicInteger();
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                workersPerHost,
+                workersPerHost,
+                WORKER_KEEP_ALIVE_SECONDS,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable);
+                    thread.setName("Download Worker (" + key + ") #" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            );
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        });
+    }
+
+    /**
+     * Represents a group of downloads that are waited on together.
+     * If any download in the batch fails, the remaining downloads are cancelled and
+     * the failure is thrown from {@link Batch#await()}.
+     */
+    public class Batch {
+
+        // Consumers
+        @Nullable
+        private final StepProgressConsumer stepProgress;
+        @Nullable
+        private final StepInfoConsumer stepInfo;
+        @Nullable
+        private final DownloadProgressConsumer downloadProgress;
+
+        // Variables
+        private final List<Future<?>> futures;
+        private final AtomicInteger totalTasks;
+        private final AtomicInteger completedTasks;
+        private final AtomicLong totalBytes;
+        private final AtomicLong transferredBytes;
+        @Nullable
+        private volatile IOException failure;
+
+        // Constructor
+        private Batch(@Nullable StepProgressConsumer stepProgress, @Nullable StepInfoConsumer stepInfo, @Nullable DownloadProgressConsumer downloadProgress) {
+            this.stepProgress = stepProgress;
+            this.stepInfo = stepInfo;
+            this.downloadProgress = downloadProgress;
+            this.futures = new ArrayList<>();
+            this.totalTasks = new AtomicInteger();
+            this.completedTasks = new AtomicInteger();
+            this.totalBytes = new AtomicLong();
+            this.transferredBytes = new AtomicLong();
+            this.failure = null;
+        }
+
+        /**
+         * Submits the given task to the worker pool of its host.
+         *
+         * @param task The {@link DownloadTask} to submit.
+         */
+        public void submit(DownloadTask task) {
+            totalTasks.incrementAndGet();
+            totalBytes.addAndGet(task.getSize());
+            Future<?> future = getExecutor(task.getUrl().getHost()).submit(() -> this.run(task));
+            synchronized (futures) {
+                futures.add(future);
+            }
+        }
+
+        /**
+         * Submits all the given tasks.
+         *
+         * @param tasks The {@link DownloadTask}s to submit.
+         * @see Batch#submit(DownloadTask)
+         */
+        public void submitAll(Collection<DownloadTask> tasks) {
+            for (DownloadTask task : tasks) {
+                this.submit(task);
+            }
+        }
+
+        /**
+         * Waits for every download submitted to this batch to finish.
+         *
+         * @throws IOException Thrown if any of the downloads failed.
+         */
+        public void await() throws IOException {
+            List<Future<?>> pending;
+            synchronized (futures) {
+                pending = new ArrayList<>(futures);
+            }
+
+            // Wait for each download
+            for (Future<?> future : pending) {
+                try {
+                    future.get();
+                } catch (CancellationException ignored) {
+                    // Only happens if another download failed, which is handled below
+                } catch (ExecutionException e) {
+                    this.fail(new IOException(e.getCause()));
+                } catch (InterruptedException e) {
+                    this.cancel();
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for downloads!");
+                }
+            }
+
+            // Throw the failure if there was one
+            IOException failure = this.failure;
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+        /**
+         * Cancels every download in this batch that has not started yet.
+         */
+        public void cancel() {
+            synchronized (futures) {
+                for (Future<?> future : futures) {
+                    future.cancel(false);
+                }
+            }
+        }
+
+        /**
+         * Downloads and validates a single task. Runs on the download worker.
+         *
+         * @param task The {@link DownloadTask} to run.
+         */
+        private void run(DownloadTask task) {
+            // Don't bother if the batch has already failed
+            if (failure != null) {
+                return;
+            }
+
+            try {
+                Path path = task.getPath();
+
+                // Download and validate
+                long[] reported = { 0 };
+                fetch(task, progress -> {
+                    long transferred = transferredBytes.addAndGet(progress - reported[0]);
+                    reported[0] = progress;
+                    if (downloadProgress != null) {
+                        downloadProgress.accept(totalBytes.get(), transferred);
+                    }
+                });
+
+                // Complete
+                if (task.getCompletionHandler() != null) {
+                    task.getCompletionHandler().complete(path);
+                }
+
+                // Update progress
+                int completed = completedTasks.incrementAndGet();
+                if (stepProgress != null) {
+                    stepProgress.accept(totalTasks.get(), completed);
+                }
+                if (stepInfo != null) {
+                    stepInfo.accept(task.getName());
+                }
+            } catch (IOException e) {
+                this.fail(e);
+            } catch (RuntimeException e) {
+                this.fail(new IOException(e));
+            }
+        }
+
+        /**
+         * Marks the batch as failed, keeping the first failure, and cancels the remaining downloads.
+         *
+         * @param e The failure.
+         */
+        private synchronized void fail(IOException e) {
+            if (failure == null) {
+                failure = e;
+                this.cancel();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,82 @@
+package net.protolauncher.api.download;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Path;
+
+/**
+ * Represents a single file to be downloaded by the {@link DownloadScheduler}.
+ * If the file already exists it will not be downloaded again, but it will still be validated
+ * if a sha1 was provided. New downloads are validated as they are written.
+ */
+public class DownloadTask {
+
+    // Variables
+    private final String name;
+    private final URL url;
+    private final Path path;
+    private final long size;
+    @Nullable
+    private final String sha1;
+    @Nullable
+    private CompletionHandler completionHandler;
+
+    /**
+     * Constructs a new download task.
+     *
+     * @param name The display name of this download, passed to the step info consumer when it completes.
+     * @param url The url to download the file from.
+     * @param path The path to write the file to.
+     * @param size The expected size of the file, used for aggregate progress.
+     * @param sha1 The sha1 to validate the file against, or null to skip validation.
+     */
+    public DownloadTask(String name, URL url, Path path, long size, @Nullable String sha1) {
+        this.name = name;
+        this.url = url;
+        this.path = path;
+        this.size = size;
+        this.sha1 = sha1;
+        this.completionHandler = null;
+    }
+
+    // Getters
+    public String getName() {
+        return name;
+    }
+    public URL getUrl() {
+        return url;
+    }
+    public Path getPath() {
+        return path;
+    }
+    public long getSize() {
+        return size;
+    }
+    @Nullable
+    public String getSha1() {
+        return sha1;
+    }
+    @Nullable
+    public CompletionHandler getCompletionHandler() {
+        return completionHandler;
+    }
+
+    // Setters
+    public DownloadTask setCompletionHandler(@Nullable CompletionHandler completionHandler) {
+        this.completionHandler = completionHandler;
+        return this;
+    }
+
+    /**
+     * Called on the download worker once the file has been downloaded and validated.
+     */
+    @FunctionalInterface
+    public interface CompletionHandler {
+
+        void complete(Path path) throws IOException;
+
+    }
+
+}
@@ -0,0 +1,183 @@
+package net.protolauncher.api.download;
+
+import net.protolauncher.api.Config.Endpoints.Mirror;
+import net.protolauncher.util.HttpStatusException;
+import net.protolauncher.util.ValidationException;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.file.FileSystemException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Determines how failed downloads are retried.
+ * <br/><br/>
+ * Each url is attempted up to a maximum amount of times, waiting between attempts with a capped exponential backoff
+ * and jitter, so many workers failing at once don't all hit the host again at the same moment. Once a url has
+ * used up its attempts, or has failed in a way that retrying it can't fix, the next mirror for it is tried instead.
+ */
+public class RetryPolicy {
+
+    // Constants
+    private static final long BASE_DELAY_MILLIS = 500;
+    private static final long MAX_DELAY_MILLIS = 8000;
+
+    // Variables
+    private final int maxAttempts;
+    private final List<Mirror> mirrors;
+
+    /**
+     * Constructs a new retry policy.
+     *
+     * @param maxAttempts The maximum amount of attempts for each url.
+     * @param mirrors The mirrors to fail over to.
+     */
+    public RetryPolicy(int maxAttempts, List<Mirror> mirrors) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.mirrors = List.copyOf(mirrors);
+    }
+
+    // Getters
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+    public List<Mirror> getMirrors() {
+        return mirrors;
+    }
+
+    /**
+     * Runs the given attempt until it succeeds, retrying and failing over to mirrors as the policy allows.
+     *
+     * @param url The original url.
+     * @param attempt The attempt to run.
+     * @throws IOException The last failure, if every attempt failed or the failure could not be retried.
+     */
+    public void execute(URL url, Attempt attempt) throws IOException {
+        List<URL> candidates = this.getCandidates(url);
+        int index = 0;
+        int tries = 0;
+        while (true) {
+            try {
+                attempt.run(candidates.get(index));
+                return;
+            } catch (IOException e) {
+                Outcome outcome = classify(e);
+                tries++;
+
+                // Give up, or move on to the next mirror without waiting
+                if (outcome == Outcome.FAIL) {
+                    throw e;
+                } else if (outcome == Outcome.NEXT_MIRROR || tries >= maxAttempts) {
+                    if (++index >= candidates.size()) {
+                        throw e;
+                    }
+                    tries = 0;
+                    continue;
+                }
+
+                // Wait before trying again
+                sleep(this.getDelay(tries));
+            }
+        }
+    }
+
+    /**
+     * Creates the list of urls to try for the given url: the url itself, followed by every mirror of it.
+     *
+     * @param url The original url.
+     * @return The list of urls to try, in order.
+     */
+    public List<URL> getCandidates(URL url) {
+        List<URL> candidates = new ArrayList<>();
+        candidates.add(url);
+        String original = url.toString();
+        for (Mirror mirror : mirrors) {
+            String base = mirror.getBase().toString();
+            if (original.startsWith(base)) {
+                try {
+                    candidates.add(new URL(mirror.getMirror().toString() + original.substring(base.length())));
+                } catch (MalformedURLException ignored) {
+                    // A broken mirror is simply not used
+                }
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Calculates how long to wait before the given try, using a capped exponential backoff.
+     * The delay is jittered between half and all of the backoff.
+     *
+     * @param tries The amount of tries that have failed so far.
+     * @return The delay in milliseconds.
+     */
+    public long getDelay(int tries) {
+        long cap = Math.min(MAX_DELAY_MILLIS, BASE_DELAY_MILLIS << Math.min(tries - 1, 16));
+        return ThreadLocalRandom.current().nextLong(cap / 2, cap + 1);
+    }
+
+    /**
+     * Classifies the given failure.
+     * <ul>
+     *     <li>Server errors, rate limiting, timeouts, connection failures and corrupt files
+     *     (a {@link ValidationException}) are retried.</li>
+     *     <li>Other client errors (like a 404) will not get better by retrying, but a mirror might have the file.</li>
+     *     <li>An interrupted thread means the download was cancelled, so it is never retried.</li>
+     *     <li>Local file system errors (a {@link FileSystemException}, like a full disk or a denied permission) will
+     *     fail the same way for every attempt and every mirror, so they are never retried either.</li>
+     * </ul>
+     *
+     * @param e The failure.
+     * @return The {@link Outcome} for the failure.
+     */
+    public static Outcome classify(IOException e) {
+        if (e instanceof InterruptedIOException && Thread.currentThread().isInterrupted()) {
+            return Outcome.FAIL;
+        } else if (e instanceof FileSystemException) {
+            return Outcome.FAIL;
+        } else if (e instanceof HttpStatusException status) {
+            int code = status.getStatusCode();
+            if (code >= 500 || code == 408 || code == 429) {
+                return Outcome.RETRY;
+            } else {
+                return Outcome.NEXT_MIRROR;
+            }
+        } else {
+            return Outcome.RETRY;
+        }
+    }
+
+    // Sleeps for the given delay, converting an interrupt into an IO exception.
+    private static void sleep(long millis) throws IOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to retry a download!");
+        }
+    }
+
+    /**
+     * Represents what should happen after a failed attempt.
+     */
+    public enum Outcome {
+        RETRY,
+        NEXT_MIRROR,
+        FAIL
+    }
+
+    /**
+     * A single attempt at a download from the given url.
+     */
+    @FunctionalInterface
+    public interface Attempt {
+
+        void run(URL url) throws IOException;
+
+    }
+
+}
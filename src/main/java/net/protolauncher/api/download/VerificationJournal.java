@@ -0,0 +1,247 @@
+package net.protolauncher.api.download;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import net.protolauncher.util.Validation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers which files have already been validated against which sha1, so they don't have to be reread on every launch.
+ * <br/><br/>
+ * Each entry is keyed by the file's path and records the size and last modified time the file had when it was validated.
+ * If either has changed since, the entry is ignored and the file is validated again. The journal is loaded lazily on
+ * first use and only written back to disk when {@link VerificationJournal#save()} is called and something has changed.
+ */
+public class VerificationJournal {
+
+    // Constants
+    private static final Type ENTRIES_TYPE = new TypeToken<HashMap<String, Entry>>() { }.getType();
+
+    // Variables
+    private final Gson gson;
+    private final Path location;
+    private final Map<String, Entry> entries;
+    private volatile boolean loaded;
+    private volatile boolean dirty;
+    private volatile boolean forced;
+
+    /**
+     * Constructs a new verification journal.
+     *
+     * @param location The file the journal is stored in.
+     */
+    public VerificationJournal(Path location) {
+        this.gson = new Gson();
+        this.location = location;
+        this.entries = new ConcurrentHashMap<>();
+        this.loaded = false;
+        this.dirty = false;
+        this.forced = false;
+    }
+
+    // Getters
+    public Path getLocation() {
+        return location;
+    }
+    public boolean isForced() {
+        return forced;
+    }
+
+    // Setters
+    /**
+     * When forced, every file is validated by reading it again regardless of the journal.
+     * Files that pass are still recorded, so the next launch can trust them again.
+     */
+    public void setForced(boolean forced) {
+        this.forced = forced;
+    }
+
+    /**
+     * Validates the given file against the given sha1, trusting the journal if the file has not changed since it was
+     * last validated against the same sha1.
+     *
+     * @param path The file to check.
+     * @param sha1 The sha1 to compare against.
+     * @return <code>true</code> if the file exists and matches the given sha1, otherwise <code>false</code>.
+     * @throws IOException Thrown if validating the file fails.
+     */
+    public boolean validate(Path path, String sha1) throws IOException {
+        this.ensureLoaded();
+        String key = this.keyOf(path);
+
+        // Read the attributes
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch (NoSuchFileException e) {
+            this.forget(key);
+            return false;
+        }
+
+        // Trust the journal if the file hasn't changed
+        Entry entry = entries.get(key);
+        if (!forced && entry != null && entry.matches(attributes, sha1)) {
+            return true;
+        }
+
+        // Otherwise validate it properly
+        if (Validation.validate(path, sha1)) {
+            entries.put(key, new Entry(attributes, sha1));
+            dirty = true;
+            return true;
+        } else {
+            this.forget(key);
+            return false;
+        }
+    }
+
+    /**
+     * Records the given file as matching the given sha1, for files that were validated while they were downloaded.
+     *
+     * @param path The file that was validated.
+     * @param sha1 The sha1 it was validated against.
+     * @throws IOException Thrown if reading the file's attributes fails.
+     */
+    public void record(Path path, String sha1) throws IOException {
+        this.ensureLoaded();
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        entries.put(this.keyOf(path), new Entry(attributes, sha1));
+        dirty = true;
+    }
+
+    /**
+     * Gets the sha1 of the given file, trusting the journal if the file has not changed since its sha1 was recorded,
+     * so an unchanged file is only ever hashed once. Useful for files that are not validated against a known sha1.
+     *
+     * @param path The file to get the sha1 of.
+     * @return The sha1 of the file.
+     * @throws IOException Thrown if the file does not exist or hashing it fails.
+     */
+    public String identify(Path path) throws IOException {
+        this.ensureLoaded();
+        String key = this.keyOf(path);
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+
+        // Trust the journal if the file hasn't changed
+        Entry entry = entries.get(key);
+        if (!forced && entry != null && entry.matches(attributes)) {
+            return entry.sha1;
+        }
+
+        // Otherwise hash it and remember it
+        String sha1 = Validation.createSha1(path);
+        entries.put(key, new Entry(attributes, sha1));
+        dirty = true;
+        return sha1;
+    }
+
+    /**
+     * Forgets every entry in the journal, so every file will be validated again.
+     */
+    public void clear() {
+        entries.clear();
+        loaded = true;
+        dirty = true;
+    }
+
+    /**
+     * Writes the journal to disk if anything has changed since it was loaded or last saved.
+     *
+     * @throws IOException Thrown if writing the journal fails.
+     */
+    public synchronized void save() throws IOException {
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+        if (location.getParent() != null) {
+            Files.createDirectories(location.getParent());
+        }
+        Files.writeString(location, gson.toJson(new HashMap<>(entries), ENTRIES_TYPE), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE, LinkOption.NOFOLLOW_LINKS);
+    }
+
+    /**
+     * Loads the journal from disk if it hasn't been loaded yet.
+     * A missing or unreadable journal is treated as empty, which only means files get validated again.
+     */
+    private synchronized void ensureLoaded() throws IOException {
+        if (loaded) {
+            return;
+        }
+        if (Files.exists(location, LinkOption.NOFOLLOW_LINKS)) {
+            try (BufferedReader reader = Files.newBufferedReader(location)) {
+                Map<String, Entry> loadedEntries = gson.fromJson(reader, ENTRIES_TYPE);
+                if (loadedEntries != null) {
+                    entries.putAll(loadedEntries);
+                }
+            } catch (JsonParseException e) {
+                dirty = true;
+            }
+        }
+        loaded = true;
+    }
+
+    // Removes an entry, marking the journal as dirty if it existed.
+    private void forget(String key) {
+        if (entries.remove(key) != null) {
+            dirty = true;
+        }
+    }
+
+    // Creates the key used for the given path.
+    private String keyOf(Path path) {
+        return path.toAbsolutePath().normalize().toString();
+    }
+
+    /**
+     * Represents the state of a file at the time it was validated.
+     */
+    private static class Entry {
+
+        // JSON Properties
+        private long size;
+        private long modified;
+        private String sha1;
+
+        // Suppress default constructor
+        private Entry() { }
+
+        // Constructor
+        private Entry(BasicFileAttributes attributes, String sha1) {
+            this.size = attributes.size();
+            this.modified = attributes.lastModifiedTime().toMillis();
+            this.sha1 = sha1;
+        }
+
+        /**
+         * Checks if the given attributes and sha1 are the same as the ones this entry was recorded with.
+         */
+        private boolean matches(BasicFileAttributes attributes, String sha1) {
+            return this.matches(attributes) && this.sha1.equalsIgnoreCase(sha1);
+        }
+
+        /**
+         * Checks if the given attributes are the same as the ones this entry was recorded with.
+         */
+        private boolean matches(BasicFileAttributes attributes) {
+            return this.size == attributes.size()
+                && this.modified == attributes.lastModifiedTime().toMillis()
+                && this.sha1 != null;
+        }
+
+    }
+
+}
@@ -1,6 +1,8 @@
 package net.protolauncher.mods.version;
 
-import java.util.List;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
 
 /**
  * Represents a ProtoLauncher Modded Version Manifest.
@@ -12,12 +14,18 @@ import java.util.List;
  * }
  * </pre>
  * This may be modified in the future to allow for different loaders and provide extra data.
+ * <br/><br/>
+ * Lookups go through an index built once, the first time it is needed, as the manifest never changes after it is loaded.
  */
 public class ModdedVersionManifest {
 
     // JSON Properties
     private List<ModdedVersionInfo> versions;
 
+    // Variables
+    @Nullable
+    private transient volatile Index index;
+
     // Suppress default constructor
     private ModdedVersionManifest() { }
 
@@ -33,7 +41,7 @@ public class ModdedVersionManifest {
      * @return A filtered list of {@link ModdedVersionInfo}'s.
      */
     public List<ModdedVersionInfo> getVersionsOfType(ModdedVersionType type) {
-        return versions.stream().filter(x -> x.type == type).toList();
+        return this.getIndex().byType.getOrDefault(type, List.of());
     }
 
     /**
@@ -42,7 +50,7 @@ public class ModdedVersionManifest {
      * @return A filtered list of {@link ModdedVersionInfo}'s.
      */
     public List<ModdedVersionInfo> getVersionsWithMcv(String mcv) {
-        return versions.stream().filter(x -> x.mcv.equals(mcv)).toList();
+        return this.getIndex().byMcv.getOrDefault(mcv, List.of());
     }
 
     /**
@@ -54,7 +62,8 @@ public class ModdedVersionManifest {
      * @return A filtered list of {@link ModdedVersionInfo}'s.
      */
     public List<ModdedVersionInfo> getVersionsOfTypeWithMcv(ModdedVersionType type, String mcv) {
-        return versions.stream().filter(x -> x.type == type && x.mcv.equals(mcv)).toList();
+        Map<String, List<ModdedVersionInfo>> ofType = this.getIndex().byTypeAndMcv.get(type);
+        return ofType != null ? ofType.getOrDefault(mcv, List.of()) : List.of();
     }
 
     /**
@@ -64,8 +73,73 @@ public class ModdedVersionManifest {
      * @param lv The loader version id of the {@link ModdedVersionInfo} to fetch.
      * @return A {@link ModdedVersionInfo} or null if not found.
      */
+    @Nullable
     public ModdedVersionInfo getVersion(ModdedVersionType type, String mcv, String lv) {
-        return versions.stream().filter(x -> x.type == type && x.mcv.equals(mcv) && x.lv.equals(lv)).findFirst().orElse(null);
+        return this.getIndex().byKey.get(new Key(type, mcv, lv));
+    }
+
+    /**
+     * Gets the index of this manifest, building it if it hasn't been built yet.
+     */
+    private Index getIndex() {
+        Index current = index;
+        if (current == null) {
+            synchronized (this) {
+                current = index;
+                if (current == null) {
+                    current = new Index(this);
+                    index = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Represents the lookups of a manifest, built in a single pass over its versions.
+     * Every list keeps the order of the manifest, so the first entry is still the newest.
+     */
+    private static class Index {
+
+        // Variables
+        private final Map<ModdedVersionType, List<ModdedVersionInfo>> byType;
+        private final Map<String, List<ModdedVersionInfo>> byMcv;
+        private final Map<ModdedVersionType, Map<String, List<ModdedVersionInfo>>> byTypeAndMcv;
+        private final Map<Key, ModdedVersionInfo> byKey;
+
+        // Constructor
+        private Index(ModdedVersionManifest manifest) {
+            Map<ModdedVersionType, List<ModdedVersionInfo>> byType = new EnumMap<>(ModdedVersionType.class);
+            Map<String, List<ModdedVersionInfo>> byMcv = new HashMap<>();
+            Map<ModdedVersionType, Map<String, List<ModdedVersionInfo>>> byTypeAndMcv = new EnumMap<>(ModdedVersionType.class);
+            Map<Key, ModdedVersionInfo> byKey = new HashMap<>(manifest.versions.size() * 2);
+            for (ModdedVersionInfo info : manifest.versions) {
+                byMcv.computeIfAbsent(info.mcv, mcv -> new ArrayList<>()).add(info);
+                byKey.putIfAbsent(new Key(info.type, info.mcv, info.lv), info);
+                if (info.type != null) {
+                    byType.computeIfAbsent(info.type, type -> new ArrayList<>()).add(info);
+                    byTypeAndMcv.computeIfAbsent(info.type, type -> new HashMap<>()).computeIfAbsent(info.mcv, mcv -> new ArrayList<>()).add(info);
+                }
+            }
+
+            // Lock everything down
+            byType.replaceAll((type, infos) -> Collections.unmodifiableList(infos));
+            byMcv.replaceAll((mcv, infos) -> Collections.unmodifiableList(infos));
+            byTypeAndMcv.replaceAll((type, ofType) -> {
+                ofType.replaceAll((mcv, infos) -> Collections.unmodifiableList(infos));
+                return Collections.unmodifiableMap(ofType);
+            });
+            this.byType = Collections.unmodifiableMap(byType);
+            this.byMcv = Collections.unmodifiableMap(byMcv);
+            this.byTypeAndMcv = Collections.unmodifiableMap(byTypeAndMcv);
+            this.byKey = Collections.unmodifiableMap(byKey);
+        }
+
     }
 
+    /**
+     * Represents the type, Minecraft version and loader version that identify a single modded version.
+     */
+    private record Key(ModdedVersionType type, String mcv, String lv) { }
+
 }
@@ -1,7 +1,12 @@
 package net.protolauncher.mojang;
 
+import net.protolauncher.util.SnapshotIO;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * An artifact basically contains information regarding an online file that needs to be downloaded.
  * This can be anywhere from an asset to a library to a game version.
@@ -57,4 +62,38 @@ public class Artifact {
         return url;
     }
 
+    /**
+     * Writes this artifact in a compact binary form, for snapshots.
+     *
+     * @param out The output to write to.
+     * @throws IOException Thrown if writing fails.
+     * @see Artifact#readSnapshot(DataInput)
+     */
+    public void writeSnapshot(DataOutput out) throws IOException {
+        SnapshotIO.writeString(out, id);
+        SnapshotIO.writeString(out, path);
+        SnapshotIO.writeString(out, sha1);
+        out.writeLong(size);
+        SnapshotIO.writeNullable(out, totalSize, DataOutput::writeLong);
+        SnapshotIO.writeString(out, url);
+    }
+
+    /**
+     * Reads an artifact written by {@link Artifact#writeSnapshot(DataOutput)}.
+     *
+     * @param in The input to read from.
+     * @return The read {@link Artifact}.
+     * @throws IOException Thrown if reading fails.
+     */
+    public static Artifact readSnapshot(DataInput in) throws IOException {
+        return new Artifact(
+            SnapshotIO.readString(in),
+            SnapshotIO.readString(in),
+            SnapshotIO.readString(in),
+            in.readLong(),
+            SnapshotIO.readNullable(in, DataInput::readLong),
+            SnapshotIO.readString(in)
+        );
+    }
+
 }
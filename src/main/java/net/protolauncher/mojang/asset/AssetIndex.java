@@ -1,21 +1,32 @@
 package net.protolauncher.mojang.asset;
 
-import com.google.gson.annotations.SerializedName;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import net.protolauncher.util.SnapshotIO;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.HashMap;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 
 /**
  * Represents a <a href="https://minecraft.fandom.com/wiki/Client.json#:~:text=%C2%A0-,assetIndex,-%3A">Mojang Asset Index</a>
+ * <br/><br/>
+ * Asset indexes are read with a streaming adapter rather than by reflection, so that the objects go straight into
+ * a compact {@link AssetObjects} instead of a map with an object for every asset.
  */
+@JsonAdapter(AssetIndex.AssetIndexJsonAdapter.class)
 public class AssetIndex {
 
     // JSON Properties
-    private HashMap<String, Asset> objects;
+    private AssetObjects objects;
     @Nullable
     private Boolean virtual;
     @Nullable
-    @SerializedName("map_to_resources")
     private Boolean mapToResources;
     @Nullable
     private String id;
@@ -24,7 +35,7 @@ public class AssetIndex {
     private AssetIndex() { }
 
     // Getters
-    public HashMap<String, Asset> getObjects() {
+    public AssetObjects getObjects() {
         return objects;
     }
     @Nullable
@@ -40,4 +51,122 @@ public class AssetIndex {
         return id;
     }
 
+    /**
+     * Writes this index in a compact binary form, for snapshots.
+     *
+     * @param out The output to write to.
+     * @throws IOException Thrown if writing fails.
+     * @see AssetIndex#readSnapshot(DataInput)
+     */
+    public void writeSnapshot(DataOutput out) throws IOException {
+        SnapshotIO.writeBoolean(out, virtual);
+        SnapshotIO.writeBoolean(out, mapToResources);
+        SnapshotIO.writeString(out, id);
+        objects.write(out);
+    }
+
+    /**
+     * Reads an index written by {@link AssetIndex#writeSnapshot(DataOutput)}.
+     *
+     * @param in The input to read from.
+     * @return The read {@link AssetIndex}.
+     * @throws IOException Thrown if reading fails.
+     */
+    public static AssetIndex readSnapshot(DataInput in) throws IOException {
+        AssetIndex index = new AssetIndex();
+        index.virtual = SnapshotIO.readBoolean(in);
+        index.mapToResources = SnapshotIO.readBoolean(in);
+        index.id = SnapshotIO.readString(in);
+        index.objects = AssetObjects.read(in);
+        return index;
+    }
+
+    /**
+     * Reads and writes asset indexes as a stream, one object at a time.
+     */
+    public static class AssetIndexJsonAdapter extends TypeAdapter<AssetIndex> {
+
+        // Asset indexes usually have a few thousand objects
+        private static final int INITIAL_CAPACITY = 4096;
+
+        @Override
+        public AssetIndex read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            AssetIndex index = new AssetIndex();
+            index.objects = new AssetObjects(INITIAL_CAPACITY);
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "objects" -> readObjects(in, index.objects);
+                    case "virtual" -> index.virtual = in.nextBoolean();
+                    case "map_to_resources" -> index.mapToResources = in.nextBoolean();
+                    case "id" -> index.id = in.nextString();
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return index;
+        }
+
+        // Reads every object into the given asset objects.
+        private static void readObjects(JsonReader in, AssetObjects objects) throws IOException {
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                String hash = null;
+                long size = 0;
+                in.beginObject();
+                while (in.hasNext()) {
+                    switch (in.nextName()) {
+                        case "hash" -> hash = in.nextString();
+                        case "size" -> size = in.nextLong();
+                        default -> in.skipValue();
+                    }
+                }
+                in.endObject();
+                if (hash == null) {
+                    throw new JsonParseException("Asset " + name + " has no hash!");
+                }
+                try {
+                    objects.add(name, hash, size);
+                } catch (IllegalArgumentException e) {
+                    throw new JsonParseException(e.getMessage());
+                }
+            }
+            in.endObject();
+        }
+
+        @Override
+        public void write(JsonWriter out, AssetIndex index) throws IOException {
+            if (index == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("objects").beginObject();
+            AssetObjects objects = index.objects;
+            for (int i = 0; i < objects.size(); i++) {
+                out.name(objects.getName(i)).beginObject();
+                out.name("hash").value(objects.getHash(i));
+                out.name("size").value(objects.getSize(i));
+                out.endObject();
+            }
+            out.endObject();
+            if (index.virtual != null) {
+                out.name("virtual").value(index.virtual);
+            }
+            if (index.mapToResources != null) {
+                out.name("map_to_resources").value(index.mapToResources);
+            }
+            if (index.id != null) {
+                out.name("id").value(index.id);
+            }
+            out.endObject();
+        }
+
+    }
+
 }
@@ -0,0 +1,185 @@
+package net.protolauncher.mojang.asset;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Represents the objects of an {@link AssetIndex} in a compact form.
+ * Stems from the {@link AssetIndex}.
+ * <br/><br/>
+ * An asset index can have thousands of objects, so instead of an object (and a map entry) per asset, everything is
+ * kept in parallel arrays that are accessed by index: the interned names, the hashes as raw bytes, and the sizes.
+ * Hashes are only turned into strings when they are asked for, which for most assets is never, as they already exist.
+ */
+public class AssetObjects {
+
+    // Constants
+    private static final int HASH_LENGTH = 20;
+    private static final char[] HEX_ARRAY = "0123456789abcdef".toCharArray();
+    private static final String[] PREFIXES = new String[256];
+    static {
+        for (int i = 0; i < PREFIXES.length; i++) {
+            PREFIXES[i] = new String(new char[] { HEX_ARRAY[i >>> 4], HEX_ARRAY[i & 0x0F] });
+        }
+    }
+
+    // Variables
+    private String[] names;
+    private byte[] hashes;
+    private long[] sizes;
+    private int size;
+
+    /**
+     * Constructs a new, empty set of asset objects.
+     *
+     * @param capacity The amount of objects to make room for up front.
+     */
+    public AssetObjects(int capacity) {
+        int initial = Math.max(1, capacity);
+        this.names = new String[initial];
+        this.hashes = new byte[initial * HASH_LENGTH];
+        this.sizes = new long[initial];
+        this.size = 0;
+    }
+
+    // Getters
+    public int size() {
+        return size;
+    }
+    public String getName(int index) {
+        return names[this.check(index)];
+    }
+    public long getSize(int index) {
+        return sizes[this.check(index)];
+    }
+
+    /**
+     * Gets the hash of the object at the given index as a lowercase hexadecimal string.
+     *
+     * @param index The index of the object.
+     * @return The sha1 hash of the object.
+     */
+    public String getHash(int index) {
+        int offset = this.check(index) * HASH_LENGTH;
+        char[] chars = new char[HASH_LENGTH * 2];
+        for (int i = 0; i < HASH_LENGTH; i++) {
+            int v = hashes[offset + i] & 0xFF;
+            chars[i * 2] = HEX_ARRAY[v >>> 4];
+            chars[i * 2 + 1] = HEX_ARRAY[v & 0x0F];
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Gets the first two characters of the hash of the object at the given index, which is the folder the object is stored in.
+     *
+     * @param index The index of the object.
+     * @return The hash prefix of the object.
+     */
+    public String getPrefix(int index) {
+        return PREFIXES[hashes[this.check(index) * HASH_LENGTH] & 0xFF];
+    }
+
+    /**
+     * Gets the location of the object at the given index, relative to the objects folder or the asset api.
+     *
+     * @param index The index of the object.
+     * @return The location of the object, as <code>&lt;prefix&gt;/&lt;hash&gt;</code>.
+     */
+    public String getLocation(int index) {
+        return this.getPrefix(index) + '/' + this.getHash(index);
+    }
+
+    /**
+     * Adds an object.
+     *
+     * @param name The name of the object. It is interned, as the same names show up in every index.
+     * @param hash The sha1 hash of the object as a hexadecimal string.
+     * @param size The size of the object in bytes.
+     * @throws IllegalArgumentException Thrown if the hash is not a valid sha1 hash.
+     */
+    public void add(String name, String hash, long size) {
+        if (hash.length() != HASH_LENGTH * 2) {
+            throw new IllegalArgumentException("Invalid asset hash for " + name + ": " + hash);
+        }
+
+        // Grow if needed
+        if (this.size == names.length) {
+            int capacity = names.length * 2;
+            names = Arrays.copyOf(names, capacity);
+            hashes = Arrays.copyOf(hashes, capacity * HASH_LENGTH);
+            sizes = Arrays.copyOf(sizes, capacity);
+        }
+
+        // Store the object
+        int offset = this.size * HASH_LENGTH;
+        for (int i = 0; i < HASH_LENGTH; i++) {
+            hashes[offset + i] = (byte) ((hexValue(hash.charAt(i * 2), hash) << 4) | hexValue(hash.charAt(i * 2 + 1), hash));
+        }
+        names[this.size] = name.intern();
+        sizes[this.size] = size;
+        this.size++;
+    }
+
+    /**
+     * Writes every object in a compact binary form.
+     *
+     * @param out The output to write to.
+     * @throws IOException Thrown if writing fails.
+     * @see AssetObjects#read(DataInput)
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            out.writeUTF(names[i]);
+        }
+        out.write(hashes, 0, size * HASH_LENGTH);
+        for (int i = 0; i < size; i++) {
+            out.writeLong(sizes[i]);
+        }
+    }
+
+    /**
+     * Reads objects written by {@link AssetObjects#write(DataOutput)}.
+     *
+     * @param in The input to read from.
+     * @return The read {@link AssetObjects}.
+     * @throws IOException Thrown if reading fails.
+     */
+    public static AssetObjects read(DataInput in) throws IOException {
+        int size = in.readInt();
+        if (size < 0) {
+            throw new IOException("Invalid asset object count: " + size);
+        }
+        AssetObjects objects = new AssetObjects(size);
+        for (int i = 0; i < size; i++) {
+            objects.names[i] = in.readUTF().intern();
+        }
+        in.readFully(objects.hashes, 0, size * HASH_LENGTH);
+        for (int i = 0; i < size; i++) {
+            objects.sizes[i] = in.readLong();
+        }
+        objects.size = size;
+        return objects;
+    }
+
+    // Converts a single hexadecimal character to its value.
+    private static int hexValue(char c, String hash) {
+        int value = Character.digit(c, 16);
+        if (value < 0) {
+            throw new IllegalArgumentException("Invalid asset hash: " + hash);
+        }
+        return value;
+    }
+
+    // Checks the given index is in bounds.
+    private int check(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for " + size + " asset objects");
+        }
+        return index;
+    }
+
+}
@@ -3,11 +3,13 @@ package net.protolauncher.mojang.auth;
 import com.google.gson.*;
 import com.google.gson.annotations.SerializedName;
 import net.protolauncher.util.Network;
+import net.protolauncher.util.RateLimiter;
+import org.jetbrains.annotations.Nullable;
 
-import javax.net.ssl.HttpsURLConnection;
 import java.io.IOException;
-import java.io.OutputStream;
+import java.io.InputStream;
 import java.net.URL;
+import java.net.http.HttpRequest;
 
 public class MicrosoftAuth {
 
@@ -20,6 +22,8 @@ public class MicrosoftAuth {
     private String xblUrl; // The Xbox Live OAuth2 URL
     private String xstsUrl; // The "XSTS" URL
     private String mcsUrl; // The Minecraft Services OAuth2 URL
+    @Nullable
+    private RateLimiter rateLimiter; // Limits the requests to each endpoint, if set
 
     // Constructor
     public MicrosoftAuth(Gson gson, String clientId, URL redirectUrl, String oauthUrl, String oauthTokenUrl, String xblUrl, String xstsUrl, String mcsUrl) {
@@ -58,6 +62,10 @@ public class MicrosoftAuth {
     public String getMcsUrl() {
         return mcsUrl;
     }
+    @Nullable
+    public RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
 
     // Setters
     public void setGson(Gson gson) {
@@ -84,6 +92,20 @@ public class MicrosoftAuth {
     public void setMcsUrl(String mcsUrl) {
         this.mcsUrl = mcsUrl;
     }
+    public void setRateLimiter(@Nullable RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    /**
+     * Sends the given request, first waiting for the rate limiter of its endpoint if there is one.
+     * @see Network#send(HttpRequest, boolean)
+     */
+    private InputStream send(HttpRequest request, boolean safe) throws IOException {
+        if (rateLimiter != null) {
+            rateLimiter.acquire(request.uri().getHost());
+        }
+        return Network.send(request, safe);
+    }
 
     /**
      * Uses the Microsoft auth code (acquired by prompting the user for Microsoft login)
@@ -100,17 +122,15 @@ public class MicrosoftAuth {
                 "&grant_type=authorization_code" +
                 "&redirect_uri=" + redirectUrl;
 
-        // Create connection
-        HttpsURLConnection connection = Network.createConnection(new URL(oauthTokenUrl), "POST", false);
-        connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
-        connection.setRequestProperty("Accept", "application/json");
-        try (OutputStream outstream = connection.getOutputStream()) {
-            byte[] content = encoded.getBytes();
-            outstream.write(content, 0, content.length);
-        }
+        // Create request
+        HttpRequest request = Network.createRequest(new URL(oauthTokenUrl), false)
+            .header("Content-Type", "application/x-www-form-urlencoded")
+            .header("Accept", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(encoded))
+            .build();
 
         // Fetch response
-        String response = Network.stringify(Network.send(connection, false));
+        String response = Network.stringify(this.send(request, false));
 
         try {
             return gson.fromJson(response, MicrosoftResponse.class);
@@ -134,17 +154,15 @@ public class MicrosoftAuth {
                 "&grant_type=refresh_token" +
                 "&redirect_uri=" + redirectUrl;
 
-        // Create connection
-        HttpsURLConnection connection = Network.createConnection(new URL(oauthTokenUrl), "POST", false);
-        connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
-        connection.setRequestProperty("Accept", "application/json");
-        try (OutputStream outstream = connection.getOutputStream()) {
-            byte[] content = encoded.getBytes();
-            outstream.write(content, 0, content.length);
-        }
+        // Create request
+        HttpRequest request = Network.createRequest(new URL(oauthTokenUrl), false)
+            .header("Content-Type", "application/x-www-form-urlencoded")
+            .header("Accept", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(encoded))
+            .build();
 
         // Fetch response
-        String response = Network.stringify(Network.send(connection));
+        String response = Network.stringify(this.send(request, true));
 
         try {
             return gson.fromJson(response, MicrosoftResponse.class);
@@ -161,22 +179,20 @@ public class MicrosoftAuth {
      * @throws IOException Thrown if there is a network error. This will throw a 401 error if the access token needs to be refreshed.
      */
     public XboxLiveResponse authenticateXboxLive(String accessToken) throws IOException {
-        HttpsURLConnection connection = Network.createConnection(new URL(xblUrl), "POST", true);
-        try (OutputStream outstream = connection.getOutputStream()) {
-            JsonObject data = new JsonObject();
-            JsonObject properties = new JsonObject();
-            properties.addProperty("AuthMethod", "RPS");
-            properties.addProperty("SiteName", "user.auth.xboxlive.com");
-            properties.addProperty("RpsTicket", "d=" + accessToken);
-            data.add("Properties", properties);
-            data.addProperty("RelyingParty", "http://auth.xboxlive.com");
-            data.addProperty("TokenType", "JWT");
-
-            byte[] content = data.toString().getBytes();
-            outstream.write(content, 0, content.length);
-        }
-
-        String response = Network.stringify(Network.send(connection));
+        JsonObject data = new JsonObject();
+        JsonObject properties = new JsonObject();
+        properties.addProperty("AuthMethod", "RPS");
+        properties.addProperty("SiteName", "user.auth.xboxlive.com");
+        properties.addProperty("RpsTicket", "d=" + accessToken);
+        data.add("Properties", properties);
+        data.addProperty("RelyingParty", "http://auth.xboxlive.com");
+        data.addProperty("TokenType", "JWT");
+
+        HttpRequest request = Network.createRequest(new URL(xblUrl), true)
+            .POST(HttpRequest.BodyPublishers.ofString(data.toString()))
+            .build();
+
+        String response = Network.stringify(this.send(request, true));
         try {
             return gson.fromJson(response, XboxLiveResponse.class);
         } catch (JsonParseException e) {
@@ -192,23 +208,21 @@ public class MicrosoftAuth {
      * @throws IOException Thrown if there is a network error.
      */
     public XboxLiveResponse authenticateXsts(String xboxLiveToken) throws IOException {
-        HttpsURLConnection connection = Network.createConnection(new URL(xstsUrl), "POST", true);
-        try (OutputStream outstream = connection.getOutputStream()) {
-            JsonObject data = new JsonObject();
-            JsonObject properties = new JsonObject();
-            properties.addProperty("SandboxId", "RETAIL");
-            JsonArray userTokens = new JsonArray();
-            userTokens.add(xboxLiveToken);
-            properties.add("UserTokens", userTokens);
-            data.add("Properties", properties);
-            data.addProperty("RelyingParty", "rp://api.minecraftservices.com/");
-            data.addProperty("TokenType", "JWT");
-
-            byte[] content = data.toString().getBytes();
-            outstream.write(content, 0, content.length);
-        }
-
-        String response = Network.stringify(Network.send(connection, false));
+        JsonObject data = new JsonObject();
+        JsonObject properties = new JsonObject();
+        properties.addProperty("SandboxId", "RETAIL");
+        JsonArray userTokens = new JsonArray();
+        userTokens.add(xboxLiveToken);
+        properties.add("UserTokens", userTokens);
+        data.add("Properties", properties);
+        data.addProperty("RelyingParty", "rp://api.minecraftservices.com/");
+        data.addProperty("TokenType", "JWT");
+
+        HttpRequest request = Network.createRequest(new URL(xstsUrl), true)
+            .POST(HttpRequest.BodyPublishers.ofString(data.toString()))
+            .build();
+
+        String response = Network.stringify(this.send(request, false));
         try {
             return gson.fromJson(response, XboxLiveResponse.class);
         } catch (JsonParseException e) {
@@ -225,16 +239,14 @@ public class MicrosoftAuth {
      * @throws IOException Thrown if there is a network error.
      */
     public MinecraftResponse authenticateMinecraft(String xstsToken, String uhs) throws IOException {
-        HttpsURLConnection connection = Network.createConnection(new URL(mcsUrl + "authentication/login_with_xbox"), "POST", true);
-        try (OutputStream outstream = connection.getOutputStream()) {
-            JsonObject data = new JsonObject();
-            data.addProperty("identityToken", "XBL3.0 x=" + uhs + ";" + xstsToken);
+        JsonObject data = new JsonObject();
+        data.addProperty("identityToken", "XBL3.0 x=" + uhs + ";" + xstsToken);
 
-            byte[] content = data.toString().getBytes();
-            outstream.write(content, 0, content.length);
-        }
+        HttpRequest request = Network.createRequest(new URL(mcsUrl + "authentication/login_with_xbox"), true)
+            .POST(HttpRequest.BodyPublishers.ofString(data.toString()))
+            .build();
 
-        String response = Network.stringify(Network.send(connection, false));
+        String response = Network.stringify(this.send(request, false));
         try {
             return gson.fromJson(response, MinecraftResponse.class);
         } catch (JsonParseException e) {
@@ -250,10 +262,12 @@ public class MicrosoftAuth {
      * @throws IOException Thrown if there is a network issue.
      */
     public boolean verifyOwnership(String accessToken) throws IOException {
-        HttpsURLConnection connection = Network.createConnection(new URL(mcsUrl + "entitlements/mcstore"), "GET", true);
-        connection.setRequestProperty("Authorization", "Bearer " + accessToken);
+        HttpRequest request = Network.createRequest(new URL(mcsUrl + "entitlements/mcstore"), true)
+            .header("Authorization", "Bearer " + accessToken)
+            .GET()
+            .build();
 
-        String response = Network.stringify(Network.send(connection, true));
+        String response = Network.stringify(this.send(request, true));
         JsonObject obj = gson.fromJson(response, JsonObject.class);
         if (obj.get("items") != null) {
             JsonArray arr = obj.getAsJsonArray("items");
@@ -0,0 +1,233 @@
+package net.protolauncher.mojang.auth;
+
+import net.protolauncher.mojang.auth.MicrosoftAuth.MicrosoftResponse;
+import net.protolauncher.mojang.auth.MicrosoftAuth.MinecraftResponse;
+import net.protolauncher.mojang.auth.MicrosoftAuth.XboxLiveResponse;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Holds every token of the Microsoft authentication chain along with when each of them expires.
+ * <br/><br/>
+ * Getting a Minecraft token takes four hops: Microsoft, Xbox Live, XSTS, and finally Minecraft itself, each using the
+ * token of the hop before it. Those tokens live for very different amounts of time (the Xbox Live token lasts about
+ * two weeks, the Minecraft token a day, the Microsoft token only an hour). A token is only needed to run the hop after
+ * it, so a refresh restarts the chain right after the newest token that is still valid instead of walking all of it:
+ * usually that is just the Minecraft hop, even long after the Microsoft token has expired. An expiry of zero means the
+ * expiry is unknown, so the token is treated as expired.
+ */
+public class MicrosoftTokenCache {
+
+    // Constants
+    private static final long EXPIRY_MARGIN_MILLIS = 60 * 1000;
+
+    // Variables
+    private String microsoftToken;
+    private String refreshToken;
+    private long microsoftExpires;
+    private String xblToken;
+    private String xblUhs;
+    private long xblExpires;
+    private String xstsToken;
+    private long xstsExpires;
+    private String minecraftToken;
+    private long minecraftExpires;
+
+    /**
+     * Constructs a new token cache from previously cached tokens.
+     *
+     * @param microsoftToken The Microsoft access token.
+     * @param refreshToken The Microsoft refresh token.
+     * @param microsoftExpires When the Microsoft access token expires, in milliseconds since the epoch.
+     * @param xblToken The Xbox Live token.
+     * @param xblUhs The Xbox Live UHS.
+     * @param xblExpires When the Xbox Live token expires, in milliseconds since the epoch.
+     * @param xstsToken The XSTS token.
+     * @param xstsExpires When the XSTS token expires, in milliseconds since the epoch.
+     * @param minecraftToken The Minecraft access token.
+     * @param minecraftExpires When the Minecraft access token expires, in milliseconds since the epoch.
+     */
+    public MicrosoftTokenCache(String microsoftToken, String refreshToken, long microsoftExpires, String xblToken, String xblUhs, long xblExpires, String xstsToken, long xstsExpires, String minecraftToken, long minecraftExpires) {
+        this.microsoftToken = microsoftToken;
+        this.refreshToken = refreshToken;
+        this.microsoftExpires = microsoftExpires;
+        this.xblToken = xblToken;
+        this.xblUhs = xblUhs;
+        this.xblExpires = xblExpires;
+        this.xstsToken = xstsToken;
+        this.xstsExpires = xstsExpires;
+        this.minecraftToken = minecraftToken;
+        this.minecraftExpires = minecraftExpires;
+    }
+
+    /**
+     * Constructs a new token cache from a fresh Microsoft login, with every later hop still to be done.
+     *
+     * @param response The response of the Microsoft login.
+     */
+    public MicrosoftTokenCache(MicrosoftResponse response) {
+        this.updateMicrosoft(response);
+    }
+
+    // Getters
+    public String getMicrosoftToken() {
+        return microsoftToken;
+    }
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+    public long getMicrosoftExpires() {
+        return microsoftExpires;
+    }
+    public String getXblToken() {
+        return xblToken;
+    }
+    public String getXblUhs() {
+        return xblUhs;
+    }
+    public long getXblExpires() {
+        return xblExpires;
+    }
+    public String getXstsToken() {
+        return xstsToken;
+    }
+    public long getXstsExpires() {
+        return xstsExpires;
+    }
+    public String getMinecraftToken() {
+        return minecraftToken;
+    }
+    public long getMinecraftExpires() {
+        return minecraftExpires;
+    }
+
+    /**
+     * Finds the hop the chain has to be restarted at to refresh the given hop.
+     * Walking back from the given hop, that is the first one whose input (the token of the hop before it) is still
+     * valid; the Microsoft hop only needs the refresh token, so it can always be run.
+     *
+     * @param from The hop to refresh.
+     * @return The {@link Hop} to start at, which is never later than the given one.
+     */
+    public Hop getRefreshStart(Hop from) {
+        long now = System.currentTimeMillis() + EXPIRY_MARGIN_MILLIS;
+        Hop start = from;
+        while (start != Hop.MICROSOFT && !this.hasValidInput(start, now)) {
+            start = Hop.values()[start.ordinal() - 1];
+        }
+        return start;
+    }
+
+    // Checks if the token the given hop is run with is still valid at the given time.
+    private boolean hasValidInput(Hop hop, long now) {
+        return switch (hop) {
+            case MICROSOFT -> true;
+            case XBOX_LIVE -> microsoftToken != null && now < microsoftExpires;
+            case XSTS -> xblToken != null && now < xblExpires;
+            case MINECRAFT -> xstsToken != null && now < xstsExpires;
+        };
+    }
+
+    /**
+     * Refreshes the chain from the given hop onwards, restarting it earlier only if the given hop's input has expired
+     * (see {@link MicrosoftTokenCache#getRefreshStart(Hop)}).
+     * If a later hop is rejected, the whole chain is walked again once, since an earlier token may have been revoked.
+     *
+     * @param auth The {@link MicrosoftAuth} to authenticate with.
+     * @param from The first hop to refresh even if it has not expired.
+     * @return <code>true</code> if the chain was refreshed, or <code>false</code> if Microsoft rejected the refresh token and the user has to log in again.
+     * @throws IOException Thrown if there is a network error or a hop fails.
+     */
+    public boolean refresh(MicrosoftAuth auth, Hop from) throws IOException {
+        Hop start = this.getRefreshStart(from);
+        if (start == Hop.MICROSOFT) {
+            return this.run(auth, Hop.MICROSOFT);
+        }
+        try {
+            return this.run(auth, start);
+        } catch (InterruptedIOException e) {
+            throw e;
+        } catch (IOException e) {
+            return this.run(auth, Hop.MICROSOFT);
+        }
+    }
+
+    /**
+     * Walks the chain from the given hop to the end.
+     */
+    private boolean run(MicrosoftAuth auth, Hop start) throws IOException {
+        // Every hop from the starting one onwards is run, in order
+        if (start.ordinal() <= Hop.MICROSOFT.ordinal()) {
+            MicrosoftResponse microsoftResponse = auth.refreshMicrosoft(refreshToken);
+            if (microsoftResponse.getError() != null) {
+                return false;
+            }
+            this.updateMicrosoft(microsoftResponse);
+        }
+        if (start.ordinal() <= Hop.XBOX_LIVE.ordinal()) {
+            XboxLiveResponse xboxLiveResponse = auth.authenticateXboxLive(microsoftToken);
+            xblToken = require(xboxLiveResponse.getToken(), "Xbox Live", xboxLiveResponse.getXerr());
+            xblUhs = xboxLiveResponse.getDisplayClaims().getXui()[0].getUhs();
+            xblExpires = parseInstant(xboxLiveResponse.getNotAfter());
+        }
+        if (start.ordinal() <= Hop.XSTS.ordinal()) {
+            XboxLiveResponse xstsResponse = auth.authenticateXsts(xblToken);
+            xstsToken = require(xstsResponse.getToken(), "XSTS", xstsResponse.getXerr());
+            xstsExpires = parseInstant(xstsResponse.getNotAfter());
+        }
+        long now = System.currentTimeMillis();
+        MinecraftResponse minecraftResponse = auth.authenticateMinecraft(xstsToken, xblUhs);
+        minecraftToken = require(minecraftResponse.getAccessToken(), "Minecraft", minecraftResponse.getError());
+        minecraftExpires = now + parseSeconds(minecraftResponse.getExpiresIn()) * 1000;
+        return true;
+    }
+
+    // Updates the Microsoft hop from the given response.
+    private void updateMicrosoft(MicrosoftResponse response) {
+        long now = System.currentTimeMillis();
+        microsoftToken = response.getAccessToken();
+        refreshToken = response.getRefreshToken();
+        microsoftExpires = now + parseSeconds(response.getExpiresIn()) * 1000;
+    }
+
+    // Throws an IO exception if a hop did not return a token.
+    private static String require(@Nullable String token, String hop, @Nullable String error) throws IOException {
+        if (token == null) {
+            throw new IOException(hop + " authentication failed: " + error);
+        }
+        return token;
+    }
+
+    // Parses an amount of seconds, where an unknown amount counts as already expired.
+    private static long parseSeconds(@Nullable String seconds) {
+        try {
+            return seconds != null ? Long.parseLong(seconds) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    // Parses an ISO-8601 instant into milliseconds, where an unknown instant counts as already expired.
+    private static long parseInstant(@Nullable String instant) {
+        try {
+            return instant != null ? Instant.parse(instant).toEpochMilli() : 0;
+        } catch (DateTimeParseException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Represents a single hop of the Microsoft authentication chain, in order.
+     */
+    public enum Hop {
+        MICROSOFT,
+        XBOX_LIVE,
+        XSTS,
+        MINECRAFT
+    }
+
+}
@@ -3,9 +3,9 @@ package net.protolauncher.mojang.auth;
 import com.google.gson.Gson;
 import net.protolauncher.util.Network;
 
-import javax.net.ssl.HttpsURLConnection;
 import java.io.IOException;
 import java.net.URL;
+import java.net.http.HttpRequest;
 
 public class MojangAPI {
 
@@ -56,10 +56,12 @@ public class MojangAPI {
      * @throws IOException Thrown if fetching the information fails.
      */
     public ProfileInformationResponse getProfileInformation(String accessToken) throws IOException {
-        HttpsURLConnection connection = Network.createConnection(new URL(minecraftServicesApi + "minecraft/profile"), "GET", true);
-        connection.setRequestProperty("Authorization", "Bearer " + accessToken);
+        HttpRequest request = Network.createRequest(new URL(minecraftServicesApi + "minecraft/profile"), true)
+            .header("Authorization", "Bearer " + accessToken)
+            .GET()
+            .build();
 
-        String response = Network.stringify(Network.send(connection, false));
+        String response = Network.stringify(Network.send(request, false));
         return gson.fromJson(response, ProfileInformationResponse.class);
     }
 
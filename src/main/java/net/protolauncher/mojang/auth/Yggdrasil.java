@@ -8,10 +8,9 @@ import com.google.gson.reflect.TypeToken;
 import net.protolauncher.util.Network;
 import org.jetbrains.annotations.Nullable;
 
-import javax.net.ssl.HttpsURLConnection;
 import java.io.IOException;
-import java.io.OutputStream;
 import java.net.URL;
+import java.net.http.HttpRequest;
 import java.util.HashMap;
 
 public class Yggdrasil {
@@ -65,29 +64,28 @@ public class Yggdrasil {
      * @throws IOException Thrown if there is a network issue.
      */
     public Response authenticate(String username, String password) throws IOException {
-        HttpsURLConnection connection = Network.createConnection(new URL(api + "authenticate"), "POST", true);
-        try (OutputStream outstream = connection.getOutputStream()) {
-            JsonObject data = new JsonObject();
-
-            // Add Agent
-            JsonObject agent = new JsonObject();
-            agent.addProperty("name", "Minecraft");
-            agent.addProperty("version", 1);
-            data.add("agent", agent);
-
-            // Add Username, Password, and ClientToken
-            data.addProperty("username", username);
-            data.addProperty("password", password);
-            data.addProperty("clientToken", clientToken);
-
-            // Request User
-            data.addProperty("requestUser", true);
-
-            // Write JSON
-            byte[] content = data.toString().getBytes();
-            outstream.write(content, 0, content.length);
-        }
-        return gson.fromJson(Network.stringify(Network.send(connection, false)), Response.class);
+        JsonObject data = new JsonObject();
+
+        // Add Agent
+        JsonObject agent = new JsonObject();
+        agent.addProperty("name", "Minecraft");
+        agent.addProperty("version", 1);
+        data.add("agent", agent);
+
+        // Add Username, Password, and ClientToken
+        data.addProperty("username", username);
+        data.addProperty("password", password);
+        data.addProperty("clientToken", clientToken);
+
+        // Request User
+        data.addProperty("requestUser", true);
+
+        // Create request
+        HttpRequest request = Network.createRequest(new URL(api + "authenticate"), true)
+            .POST(HttpRequest.BodyPublishers.ofString(data.toString()))
+            .build();
+
+        return gson.fromJson(Network.stringify(Network.send(request, false)), Response.class);
     }
 
     /**
@@ -98,19 +96,18 @@ public class Yggdrasil {
      * @throws IOException Thrown if there is a network issue.
      */
     public boolean validate(String accessToken) throws IOException {
-        HttpsURLConnection connection = Network.createConnection(new URL(api + "validate"), "POST", true);
-        try (OutputStream outstream = connection.getOutputStream()) {
-            JsonObject data = new JsonObject();
+        JsonObject data = new JsonObject();
 
-            // Add AccessToken & ClientToken
-            data.addProperty("accessToken", accessToken);
-            data.addProperty("clientToken", clientToken);
+        // Add AccessToken & ClientToken
+        data.addProperty("accessToken", accessToken);
+        data.addProperty("clientToken", clientToken);
 
-            // Write JSON
-            byte[] content = data.toString().getBytes();
-            outstream.write(content, 0, content.length);
-        }
-        return connection.getResponseCode() == 204;
+        // Create request
+        HttpRequest request = Network.createRequest(new URL(api + "validate"), true)
+            .POST(HttpRequest.BodyPublishers.ofString(data.toString()))
+            .build();
+
+        return Network.sendForStatus(request) == 204;
     }
 
     /**
@@ -121,21 +118,19 @@ public class Yggdrasil {
      * @throws IOException Thrown if there is a network issue.
      */
     public boolean invalidate(String accessToken) throws IOException {
-        HttpsURLConnection connection = Network.createConnection(new URL(api + "invalidate"), "POST", true);
-        try (OutputStream outstream = connection.getOutputStream()) {
-            JsonObject data = new JsonObject();
+        JsonObject data = new JsonObject();
 
-            // Add AccessToken & ClientToken
-            data.addProperty("accessToken", accessToken);
-            data.addProperty("clientToken", clientToken);
+        // Add AccessToken & ClientToken
+        data.addProperty("accessToken", accessToken);
+        data.addProperty("clientToken", clientToken);
 
-            // Write JSON
-            byte[] content = data.toString().getBytes();
-            outstream.write(content, 0, content.length);
-        }
+        // Create request
+        HttpRequest request = Network.createRequest(new URL(api + "invalidate"), true)
+            .POST(HttpRequest.BodyPublishers.ofString(data.toString()))
+            .build();
 
         // Get response
-        String response = Network.stringify(Network.send(connection));
+        String response = Network.stringify(Network.send(request));
         return response.isEmpty();
     }
 
@@ -147,19 +142,18 @@ public class Yggdrasil {
      * @throws IOException Thrown if there is a network issue.
      */
     public Response refresh(String accessToken) throws IOException {
-        HttpsURLConnection connection = Network.createConnection(new URL(api + "refresh"), "POST", true);
-        try (OutputStream outstream = connection.getOutputStream()) {
-            JsonObject data = new JsonObject();
+        JsonObject data = new JsonObject();
 
-            // Add AccessToken & ClientToken
-            data.addProperty("accessToken", accessToken);
-            data.addProperty("clientToken", clientToken);
+        // Add AccessToken & ClientToken
+        data.addProperty("accessToken", accessToken);
+        data.addProperty("clientToken", clientToken);
 
-            // Write JSON
-            byte[] content = data.toString().getBytes();
-            outstream.write(content, 0, content.length);
-        }
-        return gson.fromJson(Network.stringify(Network.send(connection, false)), Response.class);
+        // Create request
+        HttpRequest request = Network.createRequest(new URL(api + "refresh"), true)
+            .POST(HttpRequest.BodyPublishers.ofString(data.toString()))
+            .build();
+
+        return gson.fromJson(Network.stringify(Network.send(request, false)), Response.class);
     }
 
     /**
@@ -3,9 +3,13 @@ package net.protolauncher.mojang.library;
 import net.protolauncher.mojang.Artifact;
 import net.protolauncher.mojang.rule.Rule;
 import net.protolauncher.mojang.version.Version;
+import net.protolauncher.util.SnapshotIO;
 import net.protolauncher.util.SystemInfo;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 
@@ -86,6 +90,57 @@ public class Library {
         }
     }
 
+    /**
+     * Writes this library in a compact binary form, for snapshots.
+     *
+     * @param out The output to write to.
+     * @throws IOException Thrown if writing fails.
+     * @see Library#readSnapshot(DataInput)
+     */
+    public void writeSnapshot(DataOutput out) throws IOException {
+        SnapshotIO.writeNullable(out, downloads, (output, value) -> {
+            SnapshotIO.writeNullable(output, value.artifact, (o, artifact) -> artifact.writeSnapshot(o));
+            SnapshotIO.writeMap(output, value.classifiers, (o, artifact) -> artifact.writeSnapshot(o));
+        });
+        SnapshotIO.writeMap(out, extract, (output, value) -> {
+            output.writeInt(value.length);
+            for (String path : value) {
+                output.writeUTF(path);
+            }
+        });
+        out.writeUTF(name);
+        SnapshotIO.writeMap(out, natives, DataOutput::writeUTF);
+        SnapshotIO.writeList(out, rules, (output, rule) -> rule.writeSnapshot(output));
+    }
+
+    /**
+     * Reads a library written by {@link Library#writeSnapshot(DataOutput)}.
+     *
+     * @param in The input to read from.
+     * @return The read {@link Library}.
+     * @throws IOException Thrown if reading fails.
+     */
+    public static Library readSnapshot(DataInput in) throws IOException {
+        Library library = new Library();
+        library.downloads = SnapshotIO.readNullable(in, input -> {
+            LibraryDownloads downloads = new LibraryDownloads();
+            downloads.artifact = SnapshotIO.readNullable(input, Artifact::readSnapshot);
+            downloads.classifiers = SnapshotIO.readMap(input, Artifact::readSnapshot);
+            return downloads;
+        });
+        library.extract = SnapshotIO.readMap(in, input -> {
+            String[] paths = new String[input.readInt()];
+            for (int i = 0; i < paths.length; i++) {
+                paths[i] = input.readUTF();
+            }
+            return paths;
+        });
+        library.name = in.readUTF();
+        library.natives = SnapshotIO.readMap(in, DataInput::readUTF);
+        library.rules = SnapshotIO.readList(in, Rule::readSnapshot);
+        return library;
+    }
+
     /**
      * Represents a list of downloads for a library.
      */
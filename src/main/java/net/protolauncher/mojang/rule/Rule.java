@@ -1,26 +1,60 @@
 package net.protolauncher.mojang.rule;
 
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import net.protolauncher.util.SnapshotIO;
 import net.protolauncher.util.SystemInfo;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
 /**
  * Represents a Mojang "rule" for including arguments, libraries, or artifacts.
+ * <br/><br/>
+ * Rules are compiled when they are constructed: the system information never changes while the launcher is running,
+ * so whether the rule's OS checks pass is worked out once (and shared between every rule with the same checks),
+ * leaving only the feature checks to be done when the rule is evaluated. The OS version patterns are compiled once
+ * as well, and shared between every rule using the same pattern.
  */
+@JsonAdapter(Rule.RuleJsonAdapter.class)
 public class Rule {
 
+    // Constants
+    private static final Map<OS, Boolean> OS_MATCHES = new ConcurrentHashMap<>();
+    private static final Map<String, Optional<Pattern>> VERSION_PATTERNS = new ConcurrentHashMap<>();
+
     // JSON Properties
-    private Action action;
+    private final Action action;
     @Nullable
-    private OS os;
+    private final OS os;
+    @Nullable
+    private final Map<String, Boolean> features;
+
+    // Variables
+    private final boolean osMatches;
 
     // Constructor
-    public Rule(Action action, @Nullable OS os) {
+    public Rule(Action action, @Nullable OS os, @Nullable Map<String, Boolean> features) {
         this.action = action;
         this.os = os;
+        this.features = features != null ? Collections.unmodifiableMap(new LinkedHashMap<>(features)) : null;
+        this.osMatches = os == null || OS_MATCHES.computeIfAbsent(os, OS::matches);
+    }
+    public Rule(Action action, @Nullable OS os) {
+        this(action, os, null);
     }
     public Rule(Action action) {
-        this.action = action;
-        this.os = null;
+        this(action, null, null);
     }
 
     // Getters
@@ -31,44 +65,105 @@ public class Rule {
     public OS getOs() {
         return os;
     }
+    @Nullable
+    public Map<String, Boolean> getFeatures() {
+        return features;
+    }
+
+    /**
+     * Checks if this rule applies to the current system with the given features enabled.
+     *
+     * @param enabledFeatures The features that are enabled, such as <code>is_demo_user</code>.
+     * @return <code>true</code> if every check of this rule passes, otherwise <code>false</code>.
+     */
+    public boolean applies(Set<String> enabledFeatures) {
+        if (!osMatches) {
+            return false;
+        }
+        if (features != null) {
+            for (Map.Entry<String, Boolean> feature : features.entrySet()) {
+                if (enabledFeatures.contains(feature.getKey()) != feature.getValue()) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes this rule in a compact binary form, for snapshots.
+     *
+     * @param out The output to write to.
+     * @throws IOException Thrown if writing fails.
+     * @see Rule#readSnapshot(DataInput)
+     */
+    public void writeSnapshot(DataOutput out) throws IOException {
+        out.writeBoolean(action == Action.ALLOW);
+        SnapshotIO.writeNullable(out, os, (output, value) -> {
+            SnapshotIO.writeString(output, value.name);
+            SnapshotIO.writeString(output, value.version);
+            SnapshotIO.writeString(output, value.arch);
+        });
+        SnapshotIO.writeMap(out, features, DataOutput::writeBoolean);
+    }
+
+    /**
+     * Reads a rule written by {@link Rule#writeSnapshot(DataOutput)}, compiling it like any other rule.
+     *
+     * @param in The input to read from.
+     * @return The read {@link Rule}.
+     * @throws IOException Thrown if reading fails.
+     */
+    public static Rule readSnapshot(DataInput in) throws IOException {
+        Action action = in.readBoolean() ? Action.ALLOW : Action.DISALLOW;
+        OS os = SnapshotIO.readNullable(in, input -> {
+            OS value = new OS();
+            value.name = SnapshotIO.readString(input);
+            value.version = SnapshotIO.readString(input);
+            value.arch = SnapshotIO.readString(input);
+            return value;
+        });
+        return new Rule(action, os, SnapshotIO.readMap(in, DataInput::readBoolean));
+    }
+
+    /**
+     * Determines the final {@link Action} from the given list of rules, with no features enabled.
+     *
+     * @param rules The rules to determine the final {@link Action}.
+     * @return The final {@link Action}
+     * @see Rule#determine(Iterable, Set)
+     */
+    public static Action determine(Rule[] rules) {
+        return determine(Arrays.asList(rules), Set.of());
+    }
+
+    /**
+     * Determines the final {@link Action} from the given list of rules, with no features enabled.
+     *
+     * @param rules The rules to determine the final {@link Action}.
+     * @return The final {@link Action}
+     * @see Rule#determine(Iterable, Set)
+     */
+    public static Action determine(Iterable<Rule> rules) {
+        return determine(rules, Set.of());
+    }
 
     /**
      * Determines the final {@link Action} from the given list of rules.
      * If a rule fails to pass any requirements, the rule should not be used.
      *
      * @param rules The rules to determine the final {@link Action}.
+     * @param enabledFeatures The features that are enabled.
      * @return The final {@link Action}
      */
-    public static Action determine(Rule[] rules) {
+    public static Action determine(Iterable<Rule> rules, Set<String> enabledFeatures) {
         // The default action is to disallow
         Action finalAction = Action.DISALLOW;
 
-        // Check rules
+        // If the rule passed all the checks, set the final action to this rule's action
         for (Rule rule : rules) {
-            // Firstly determine the rule's default action
-            Action action = rule.action;
-
-            // Check against OS checks
-            if (rule.os != null) {
-                // Check the name against the current system name
-                if (rule.os.getName() != null && !SystemInfo.OS_NAME.equals(rule.os.getName())) {
-                    action = null;
-                }
-
-                // Check the version against the current system version
-                if (rule.os.getVersion() != null && SystemInfo.OS_VERSION.matches(rule.os.getVersion())) {
-                    action = null;
-                }
-
-                // Check the architecture against the current system architecture
-                if (rule.os.getArch() != null && !SystemInfo.OS_ARCH.equals(rule.os.getArch())) {
-                    action = null;
-                }
-            }
-
-            // If the rule passed all the checks, set the final action to this rule's default action
-            if (action != null) {
-                finalAction = action;
+            if (rule.applies(enabledFeatures)) {
+                finalAction = rule.action;
             }
         }
 
@@ -106,6 +201,175 @@ public class Rule {
             return arch;
         }
 
+        /**
+         * Checks the current system against this OS.
+         * As this never changes, it is only ever called once for every distinct OS (see {@link Rule#OS_MATCHES}).
+         *
+         * @return <code>true</code> if the name, version and architecture all match, otherwise <code>false</code>.
+         */
+        private boolean matches() {
+            // Check the name against the current system name
+            if (name != null && !SystemInfo.OS_NAME.equals(name)) {
+                return false;
+            }
+
+            // Check the version against the current system version, which is a regular expression
+            // Like the vanilla launcher, the pattern only has to be found in the version (such as "^10\." in "10.0")
+            if (version != null) {
+                Optional<Pattern> pattern = VERSION_PATTERNS.computeIfAbsent(version, OS::compileVersion);
+                if (pattern.isEmpty() || !pattern.get().matcher(SystemInfo.OS_VERSION).find()) {
+                    return false;
+                }
+            }
+
+            // Check the architecture against the current system architecture
+            return arch == null || SystemInfo.OS_ARCH.equals(arch);
+        }
+
+        // Compiles a version pattern, where an invalid pattern never matches.
+        private static Optional<Pattern> compileVersion(String version) {
+            try {
+                return Optional.of(Pattern.compile(version));
+            } catch (PatternSyntaxException e) {
+                return Optional.empty();
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof OS other)) {
+                return false;
+            }
+            return Objects.equals(name, other.name) && Objects.equals(version, other.version) && Objects.equals(arch, other.arch);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, version, arch);
+        }
+
+    }
+
+    /**
+     * Reads and writes rules as a stream, compiling them as they are read.
+     */
+    public static class RuleJsonAdapter extends TypeAdapter<Rule> {
+
+        @Override
+        public Rule read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            Action action = null;
+            OS os = null;
+            Map<String, Boolean> features = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "action" -> action = readAction(in.nextString());
+                    case "os" -> os = readOs(in);
+                    case "features" -> features = readFeatures(in);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            if (action == null) {
+                throw new JsonParseException("Rule has no action!");
+            }
+            return new Rule(action, os, features);
+        }
+
+        // Reads the action of a rule.
+        private static Action readAction(String action) {
+            return switch (action) {
+                case "allow" -> Action.ALLOW;
+                case "disallow" -> Action.DISALLOW;
+                default -> throw new JsonParseException("Unknown rule action: " + action);
+            };
+        }
+
+        // Reads the 'os' property of a rule.
+        @Nullable
+        private static OS readOs(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            OS os = new OS();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "name" -> os.name = nextNullableString(in);
+                    case "version" -> os.version = nextNullableString(in);
+                    case "arch" -> os.arch = nextNullableString(in);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return os;
+        }
+
+        // Reads the 'features' property of a rule.
+        @Nullable
+        private static Map<String, Boolean> readFeatures(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            Map<String, Boolean> features = new LinkedHashMap<>();
+            in.beginObject();
+            while (in.hasNext()) {
+                features.put(in.nextName(), in.nextBoolean());
+            }
+            in.endObject();
+            return features;
+        }
+
+        // Reads a string that may be null.
+        @Nullable
+        private static String nextNullableString(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            return in.nextString();
+        }
+
+        @Override
+        public void write(JsonWriter out, Rule rule) throws IOException {
+            if (rule == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("action").value(rule.action == Action.ALLOW ? "allow" : "disallow");
+            if (rule.os != null) {
+                out.name("os").beginObject();
+                if (rule.os.name != null) {
+                    out.name("name").value(rule.os.name);
+                }
+                if (rule.os.version != null) {
+                    out.name("version").value(rule.os.version);
+                }
+                if (rule.os.arch != null) {
+                    out.name("arch").value(rule.os.arch);
+                }
+                out.endObject();
+            }
+            if (rule.features != null) {
+                out.name("features").beginObject();
+                for (Map.Entry<String, Boolean> feature : rule.features.entrySet()) {
+                    out.name(feature.getKey()).value(feature.getValue());
+                }
+                out.endObject();
+            }
+            out.endObject();
+        }
+
     }
 
 }
@@ -2,14 +2,21 @@ package net.protolauncher.mojang.version;
 
 import net.protolauncher.mojang.Artifact;
 import net.protolauncher.mojang.library.Library;
+import net.protolauncher.util.SnapshotIO;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
 /**
  * Represents a <a href="https://minecraft.fandom.com/wiki/Client.json">Mojang Minecraft Client File</a>.
+ * <br/><br/>
+ * Besides being parsed from JSON, a version can be written as and read from a snapshot of its fields
+ * (see {@link Version#writeSnapshot(DataOutput)}), which skips tokenizing and reflection entirely.
  */
 public class Version {
 
@@ -88,6 +95,86 @@ public class Version {
         return type;
     }
 
+    /**
+     * Writes this version in a compact binary form, for snapshots.
+     *
+     * @param out The output to write to.
+     * @throws IOException Thrown if writing fails.
+     * @see Version#readSnapshot(DataInput)
+     */
+    public void writeSnapshot(DataOutput out) throws IOException {
+        SnapshotIO.writeNullable(out, arguments, (output, value) -> value.writeSnapshot(output));
+        SnapshotIO.writeNullable(out, assetIndex, (output, value) -> value.writeSnapshot(output));
+        SnapshotIO.writeString(out, assets);
+        SnapshotIO.writeNullable(out, complianceLevel, DataOutput::writeInt);
+        SnapshotIO.writeNullable(out, downloads, (output, value) -> value.writeSnapshot(output));
+        SnapshotIO.writeString(out, id);
+        SnapshotIO.writeNullable(out, javaVersion, (output, value) -> {
+            SnapshotIO.writeString(output, value.component);
+            output.writeInt(value.majorVersion);
+        });
+        SnapshotIO.writeList(out, libraries, (output, value) -> value.writeSnapshot(output));
+        SnapshotIO.writeNullable(out, logging, (output, value) -> SnapshotIO.writeNullable(output, value.client, Version::writeLoggingClient));
+        SnapshotIO.writeString(out, mainClass);
+        SnapshotIO.writeString(out, minecraftArguments);
+        SnapshotIO.writeString(out, minimumLauncherVersion);
+        SnapshotIO.writeNullable(out, releaseTime, (output, value) -> output.writeLong(value.getTime()));
+        SnapshotIO.writeNullable(out, time, (output, value) -> output.writeLong(value.getTime()));
+        SnapshotIO.writeNullable(out, type, (output, value) -> output.writeUTF(value.name()));
+    }
+
+    /**
+     * Reads a version written by {@link Version#writeSnapshot(DataOutput)}.
+     *
+     * @param in The input to read from.
+     * @return The read {@link Version}.
+     * @throws IOException Thrown if reading fails.
+     */
+    public static Version readSnapshot(DataInput in) throws IOException {
+        Version version = new Version();
+        version.arguments = SnapshotIO.readNullable(in, VersionArguments::readSnapshot);
+        version.assetIndex = SnapshotIO.readNullable(in, Artifact::readSnapshot);
+        version.assets = SnapshotIO.readString(in);
+        version.complianceLevel = SnapshotIO.readNullable(in, DataInput::readInt);
+        version.downloads = SnapshotIO.readNullable(in, VersionDownloads::readSnapshot);
+        version.id = SnapshotIO.readString(in);
+        version.javaVersion = SnapshotIO.readNullable(in, input -> {
+            JavaVersion javaVersion = new JavaVersion();
+            javaVersion.component = SnapshotIO.readString(input);
+            javaVersion.majorVersion = input.readInt();
+            return javaVersion;
+        });
+        version.libraries = SnapshotIO.readList(in, Library::readSnapshot);
+        version.logging = SnapshotIO.readNullable(in, input -> {
+            Logging logging = new Logging();
+            logging.client = SnapshotIO.readNullable(input, Version::readLoggingClient);
+            return logging;
+        });
+        version.mainClass = SnapshotIO.readString(in);
+        version.minecraftArguments = SnapshotIO.readString(in);
+        version.minimumLauncherVersion = SnapshotIO.readString(in);
+        version.releaseTime = SnapshotIO.readNullable(in, input -> new Date(input.readLong()));
+        version.time = SnapshotIO.readNullable(in, input -> new Date(input.readLong()));
+        version.type = SnapshotIO.readNullable(in, input -> VersionType.valueOf(input.readUTF()));
+        return version;
+    }
+
+    // Writes the client logging configuration for a snapshot.
+    private static void writeLoggingClient(DataOutput out, Logging.Client client) throws IOException {
+        SnapshotIO.writeString(out, client.argument);
+        SnapshotIO.writeNullable(out, client.file, (output, file) -> file.writeSnapshot(output));
+        SnapshotIO.writeString(out, client.type);
+    }
+
+    // Reads the client logging configuration written by writeLoggingClient.
+    private static Logging.Client readLoggingClient(DataInput in) throws IOException {
+        Logging.Client client = new Logging.Client();
+        client.argument = SnapshotIO.readString(in);
+        client.file = SnapshotIO.readNullable(in, Artifact::readSnapshot);
+        client.type = SnapshotIO.readString(in);
+        return client;
+    }
+
     /**
      * Merges this version with another version. Useful for modding.
      * <br/><br/>
@@ -120,8 +207,8 @@ public class Version {
         this.libraries = libs;
         if (this.minecraftArguments == null) {
             this.minecraftArguments = version.minecraftArguments;
-        } else {
-            this.minecraftArguments += version.minecraftArguments;
+        } else if (version.minecraftArguments != null) {
+            this.minecraftArguments += ' ' + version.minecraftArguments;
         }
         return this;
     }
@@ -4,8 +4,16 @@ import com.google.gson.*;
 import com.google.gson.annotations.JsonAdapter;
 import net.protolauncher.mojang.rule.Action;
 import net.protolauncher.mojang.rule.Rule;
+import net.protolauncher.util.BinaryJson;
+import net.protolauncher.util.SnapshotIO;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Represents a list of CLI arguments required to launch the client.
@@ -18,8 +26,8 @@ import java.lang.reflect.Type;
 public class VersionArguments {
 
     // JSON Properties
-    protected String game;
-    protected String jvm;
+    protected List<String> game;
+    protected List<String> jvm;
     private JsonElement gameOriginal;
     private JsonElement jvmOriginal;
 
@@ -27,10 +35,10 @@ public class VersionArguments {
     private VersionArguments() { }
 
     // Getters
-    public String getGame() {
+    public List<String> getGame() {
         return game;
     }
-    public String getJvm() {
+    public List<String> getJvm() {
         return jvm;
     }
 
@@ -47,7 +55,7 @@ public class VersionArguments {
         }
 
         // Merge game arguments
-        this.game += ' ' + arguments.game;
+        this.game = concat(this.game, arguments.game);
         if (arguments.gameOriginal != null) {
             if (this.gameOriginal == null) {
                 this.gameOriginal = arguments.gameOriginal;
@@ -57,7 +65,7 @@ public class VersionArguments {
         }
 
         // Merge jvm arguments
-        this.jvm += ' ' + arguments.jvm;
+        this.jvm = concat(this.jvm, arguments.jvm);
         if (arguments.jvmOriginal != null) {
             if (this.jvmOriginal == null) {
                 this.jvmOriginal = arguments.jvmOriginal;
@@ -70,11 +78,54 @@ public class VersionArguments {
     }
 
     /**
-     * Handles converting the arguments to a string and back into an array.
+     * Writes these arguments in a compact binary form, for snapshots.
+     * The original arrays are only kept for writing the arguments back out, so they're kept as small binary trees.
+     *
+     * @param out The output to write to.
+     * @throws IOException Thrown if writing fails.
+     * @see VersionArguments#readSnapshot(DataInput)
+     */
+    public void writeSnapshot(DataOutput out) throws IOException {
+        SnapshotIO.writeList(out, game, DataOutput::writeUTF);
+        SnapshotIO.writeList(out, jvm, DataOutput::writeUTF);
+        SnapshotIO.writeNullable(out, gameOriginal, BinaryJson::write);
+        SnapshotIO.writeNullable(out, jvmOriginal, BinaryJson::write);
+    }
+
+    /**
+     * Reads arguments written by {@link VersionArguments#writeSnapshot(DataOutput)}.
+     *
+     * @param in The input to read from.
+     * @return The read {@link VersionArguments}.
+     * @throws IOException Thrown if reading fails.
+     */
+    public static VersionArguments readSnapshot(DataInput in) throws IOException {
+        VersionArguments arguments = new VersionArguments();
+        arguments.game = SnapshotIO.readList(in, DataInput::readUTF);
+        arguments.jvm = SnapshotIO.readList(in, DataInput::readUTF);
+        arguments.gameOriginal = SnapshotIO.readNullable(in, BinaryJson::read);
+        arguments.jvmOriginal = SnapshotIO.readNullable(in, BinaryJson::read);
+        return arguments;
+    }
+
+    // Concatenates two lists of arguments, either of which may be null.
+    private static List<String> concat(@Nullable List<String> first, @Nullable List<String> second) {
+        List<String> args = new ArrayList<>();
+        if (first != null) {
+            args.addAll(first);
+        }
+        if (second != null) {
+            args.addAll(second);
+        }
+        return args;
+    }
+
+    /**
+     * Handles converting the arguments to a list of separate arguments and back into an array.
      * <br/><br/>
      * We need to preserve the original array due to the fact that it may be modified,
-     * but we need to convert it to a string to use it when launching. As such, we only
-     * store the original JsonElement in the file, and then re-parse the string each
+     * but we need to convert it to a list to use it when launching. As such, we only
+     * store the original JsonElement in the file, and then re-parse the list each
      * time it is loaded.
      * <br/><br/>
      * The alternative is to have a method to construct the string every time the game
@@ -91,8 +142,8 @@ public class VersionArguments {
         public VersionArguments deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) throws JsonParseException {
             JsonObject obj = json.getAsJsonObject();
             VersionArguments versionArguments = new VersionArguments();
-            versionArguments.game = new GameArgumentsDeserializer().deserialize(obj.get("game"), Object.class, context);
-            versionArguments.jvm = new JvmArgumentsDeserializer().deserialize(obj.get("jvm"), Object.class, context);
+            versionArguments.game = new ArgumentsDeserializer().deserialize(obj.get("game"), Object.class, context);
+            versionArguments.jvm = new ArgumentsDeserializer().deserialize(obj.get("jvm"), Object.class, context);
             versionArguments.gameOriginal = obj.get("game");
             versionArguments.jvmOriginal = obj.get("jvm");
             return versionArguments;
@@ -109,47 +160,15 @@ public class VersionArguments {
     }
 
     /**
-     * Deserializes the possible 'game' arguments in the array into a string.
-     */
-    public static class GameArgumentsDeserializer implements JsonDeserializer<String> {
-
-        @Override
-        public String deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) throws JsonParseException {
-            StringBuilder args = new StringBuilder();
-
-            // Handle null
-            if (json == null) {
-                return null;
-            }
-
-            // Parse the types
-            JsonArray arr = json.getAsJsonArray();
-            for (JsonElement element : arr) {
-                // If the element is a primitive, it's a string and they can be appended to the arguments
-                if (element.isJsonPrimitive()) {
-                    if (args.length() > 0) {
-                        args.append(' ');
-                    }
-                    args.append(element.getAsString().replace("= ", "=").trim());
-                }
-                // TODO: Handle options and rules
-            }
-
-            // Return the final string
-            return args.toString();
-        }
-
-    }
-
-    /**
-     * Deserializes the possible 'jvm' arguments in the array into a string.
+     * Deserializes the possible arguments in the array into separate arguments.
+     * <br/><br/>
+     * Plain strings are always included, while objects (a value with rules) are only included if their rules allow
+     * them with no features enabled. A value can be either a single argument or an array of them.
      */
-    public static class JvmArgumentsDeserializer implements JsonDeserializer<String> {
+    public static class ArgumentsDeserializer implements JsonDeserializer<List<String>> {
 
         @Override
-        public String deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) throws JsonParseException {
-            StringBuilder args = new StringBuilder();
-
+        public List<String> deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) throws JsonParseException {
             // Handle null
             if (json == null) {
                 return null;
@@ -157,55 +176,35 @@ public class VersionArguments {
 
             // Parse the types
             JsonArray arr = json.getAsJsonArray();
+            List<String> args = new ArrayList<>(arr.size());
             for (JsonElement element : arr) {
-                // If the element is a primitive, it's a string and they can be appended to the arguments
+                // If the element is a primitive, it's a single argument
                 // Otherwise, it's an object (value with rules) and must be parsed further
                 if (element.isJsonPrimitive()) {
-                    if (args.length() > 0) {
-                        args.append(' ');
-                    }
-                    args.append(element.getAsString().replace("= ", "=").trim());
+                    args.add(element.getAsString().replace("= ", "=").trim());
                 } else {
                     JsonObject obj = element.getAsJsonObject();
 
-                    // Fetch the rules from the object
-                    Rule[] rules = (new Gson()).fromJson(obj.get("rules"), Rule[].class);
-
-                    // Check the rules to determine if we should even bother parsing the value
-                    if (Rule.determine(rules) == Action.ALLOW) {
-
-                        // The final value to append to the arguments
-                        StringBuilder value = new StringBuilder();
-
-                        // Check if the rule's value contains an array or a string
-                        JsonElement valueElement = obj.get("value");
-
-                        // If the element is a primitive, it's a string and they can be appended to the arguments
-                        if (valueElement.isJsonPrimitive()) {
-                            value = new StringBuilder(valueElement.getAsString());
-
-                            // Otherwise, the element is an array, it's an array of string values and we should convert it to be one string
-                        } else {
-                            JsonArray multivalueElement = valueElement.getAsJsonArray();
-                            for (JsonElement multivalueValue : multivalueElement) {
-                                if (value.length() > 0) {
-                                    value.append(' ');
-                                }
-                                value.append('"').append(multivalueValue.getAsString()).append('"');
-                            }
-                        }
+                    // Fetch the rules from the object and check them to determine if we should even bother parsing the value
+                    Rule[] rules = context.deserialize(obj.get("rules"), Rule[].class);
+                    if (Rule.determine(rules) != Action.ALLOW) {
+                        continue;
+                    }
 
-                        // Append the value
-                        if (args.length() > 0) {
-                            args.append(' ');
+                    // If the value is a primitive, it's a single argument, otherwise it's an array of them
+                    JsonElement valueElement = obj.get("value");
+                    if (valueElement.isJsonPrimitive()) {
+                        args.add(valueElement.getAsString());
+                    } else {
+                        for (JsonElement multivalueValue : valueElement.getAsJsonArray()) {
+                            args.add(multivalueValue.getAsString());
                         }
-                        args.append(value);
                     }
                 }
             }
 
-            // Return the final string
-            return args.toString();
+            // Return the final arguments
+            return args;
         }
 
     }
@@ -2,8 +2,13 @@ package net.protolauncher.mojang.version;
 
 import com.google.gson.annotations.SerializedName;
 import net.protolauncher.mojang.Artifact;
+import net.protolauncher.util.SnapshotIO;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * Represents a list of client/server downloads for a game version.
  * Stems from the {@link Version}.
@@ -39,4 +44,35 @@ public class VersionDownloads {
         return serverMappings;
     }
 
+    /**
+     * Writes these downloads in a compact binary form, for snapshots.
+     *
+     * @param out The output to write to.
+     * @throws IOException Thrown if writing fails.
+     * @see VersionDownloads#readSnapshot(DataInput)
+     */
+    public void writeSnapshot(DataOutput out) throws IOException {
+        SnapshotIO.Writer<Artifact> writer = (output, artifact) -> artifact.writeSnapshot(output);
+        SnapshotIO.writeNullable(out, client, writer);
+        SnapshotIO.writeNullable(out, clientMappings, writer);
+        SnapshotIO.writeNullable(out, server, writer);
+        SnapshotIO.writeNullable(out, serverMappings, writer);
+    }
+
+    /**
+     * Reads downloads written by {@link VersionDownloads#writeSnapshot(DataOutput)}.
+     *
+     * @param in The input to read from.
+     * @return The read {@link VersionDownloads}.
+     * @throws IOException Thrown if reading fails.
+     */
+    public static VersionDownloads readSnapshot(DataInput in) throws IOException {
+        VersionDownloads downloads = new VersionDownloads();
+        downloads.client = SnapshotIO.readNullable(in, Artifact::readSnapshot);
+        downloads.clientMappings = SnapshotIO.readNullable(in, Artifact::readSnapshot);
+        downloads.server = SnapshotIO.readNullable(in, Artifact::readSnapshot);
+        downloads.serverMappings = SnapshotIO.readNullable(in, Artifact::readSnapshot);
+        return downloads;
+    }
+
 }
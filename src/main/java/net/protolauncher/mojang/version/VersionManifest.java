@@ -2,10 +2,12 @@ package net.protolauncher.mojang.version;
 
 import org.jetbrains.annotations.Nullable;
 
-import java.util.List;
+import java.util.*;
 
 /**
  * Represents the <a href="https://minecraft.fandom.com/wiki/Version_manifest.json">Mojang Version Manifest</a>
+ * <br/><br/>
+ * Lookups go through an index built once, the first time it is needed, as the manifest never changes after it is loaded.
  */
 public class VersionManifest {
 
@@ -13,6 +15,10 @@ public class VersionManifest {
     private Latest latest;
     private List<VersionInfo> versions;
 
+    // Variables
+    @Nullable
+    private transient volatile Index index;
+
     // Suppress default constructor
     private VersionManifest() { }
 
@@ -21,21 +27,14 @@ public class VersionManifest {
         return this.getVersion(latest.release);
     }
     public VersionInfo getLatestSnapshot() {
-        if (latest.snapshot.equals(latest.release)) {
-            return this.getVersionsOfType(VersionType.SNAPSHOT).get(0);
-        } else {
-            return this.getVersion(latest.snapshot);
-        }
+        return this.getIndex().latestSnapshot;
     }
     public String getLatestReleaseId() {
         return latest.release;
     }
     public String getLatestSnapshotId() {
-        if (latest.snapshot.equals(latest.release)) {
-            return this.getVersionsOfType(VersionType.SNAPSHOT).get(0).id;
-        } else {
-            return latest.snapshot;
-        }
+        VersionInfo latestSnapshot = this.getIndex().latestSnapshot;
+        return latestSnapshot != null ? latestSnapshot.id : latest.snapshot;
     }
     public List<VersionInfo> getVersions() {
         return versions;
@@ -48,7 +47,7 @@ public class VersionManifest {
      * @return A filtered list of {@link VersionInfo}'s.
      */
     public List<VersionInfo> getVersionsOfType(VersionType type) {
-        return versions.stream().filter(x -> x.type == type).toList();
+        return this.getIndex().byType.getOrDefault(type, List.of());
     }
 
     /**
@@ -58,7 +57,61 @@ public class VersionManifest {
      */
     @Nullable
     public VersionInfo getVersion(String id) {
-        return versions.stream().filter(x -> x.id.equalsIgnoreCase(id)).findFirst().orElse(null);
+        return this.getIndex().byId.get(id.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Gets the index of this manifest, building it if it hasn't been built yet.
+     */
+    private Index getIndex() {
+        Index current = index;
+        if (current == null) {
+            synchronized (this) {
+                current = index;
+                if (current == null) {
+                    current = new Index(this);
+                    index = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Represents the lookups of a manifest, built in a single pass over its versions.
+     */
+    private static class Index {
+
+        // Variables
+        private final Map<String, VersionInfo> byId;
+        private final Map<VersionType, List<VersionInfo>> byType;
+        @Nullable
+        private final VersionInfo latestSnapshot;
+
+        // Constructor
+        private Index(VersionManifest manifest) {
+            Map<String, VersionInfo> byId = new HashMap<>(manifest.versions.size() * 2);
+            Map<VersionType, List<VersionInfo>> byType = new EnumMap<>(VersionType.class);
+            for (VersionInfo info : manifest.versions) {
+                byId.putIfAbsent(info.id.toLowerCase(Locale.ROOT), info);
+                if (info.type != null) {
+                    byType.computeIfAbsent(info.type, type -> new ArrayList<>()).add(info);
+                }
+            }
+            byType.replaceAll((type, infos) -> Collections.unmodifiableList(infos));
+            this.byId = Collections.unmodifiableMap(byId);
+            this.byType = Collections.unmodifiableMap(byType);
+
+            // When the latest snapshot is the latest release, the latest snapshot is the newest actual snapshot
+            Latest latest = manifest.latest;
+            if (latest.snapshot.equals(latest.release)) {
+                List<VersionInfo> snapshots = byType.getOrDefault(VersionType.SNAPSHOT, List.of());
+                this.latestSnapshot = snapshots.isEmpty() ? null : snapshots.get(0);
+            } else {
+                this.latestSnapshot = byId.get(latest.snapshot.toLowerCase(Locale.ROOT));
+            }
+        }
+
     }
 
     /**
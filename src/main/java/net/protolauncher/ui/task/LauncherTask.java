@@ -1,13 +1,11 @@
 package net.protolauncher.ui.task;
 
-import javafx.application.Platform;
+import javafx.animation.AnimationTimer;
 import javafx.concurrent.Task;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayDeque;
 import java.util.Optional;
-import java.util.Queue;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
 /**
@@ -17,6 +15,11 @@ import java.util.function.Consumer;
  * updates. Additionally, it synchronizes when updates are
  * pushed for all handlers and allows for up to three
  * progress handlers.
+ * <br/><br/>
+ * Every kind of update has a single slot holding only its latest value, so an update from the task is just a swap,
+ * no matter how often it happens (downloads report progress every few kilobytes). An {@link AnimationTimer} empties
+ * the slots into the handlers once per frame while the task is running, so the handlers see at most one update per
+ * kind per frame, always the newest one, and once more when the task is done so the last updates are never lost.
  *
  * Special thanks to  <a href="https://stackoverflow.com/a/40201248/6472449">fabian from StackOverflow</a>.
  */
@@ -30,17 +33,38 @@ public abstract class LauncherTask<V> extends Task<V> {
     private Consumer<String> titleHandler;
     private Consumer<Optional<V>> valueHandler;
 
-    // Queues
-    private final Queue<String> messageQueue = new ArrayDeque<>();
-    private final Queue<Progress> progressQueue = new ArrayDeque<>();
-    private final Queue<Progress> progressQueue2 = new ArrayDeque<>();
-    private final Queue<Progress> progressQueue3 = new ArrayDeque<>();
-    private final Queue<String> titleQueue = new ArrayDeque<>();
-    private final Queue<Optional<V>> valueQueue = new ArrayDeque<>();
+    // Slots
+    private final AtomicReference<String> messageSlot = new AtomicReference<>();
+    private final AtomicReference<Progress> progressSlot = new AtomicReference<>();
+    private final AtomicReference<Progress> progressSlot2 = new AtomicReference<>();
+    private final AtomicReference<Progress> progressSlot3 = new AtomicReference<>();
+    private final AtomicReference<String> titleSlot = new AtomicReference<>();
+    private final AtomicReference<Optional<V>> valueSlot = new AtomicReference<>();
 
     // Update Variables
-    private final AtomicBoolean updateRequested = new AtomicBoolean(false);
-    private final AtomicBoolean updating = new AtomicBoolean(false);
+    private final AnimationTimer pulse = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            LauncherTask.this.update();
+        }
+    };
+
+    /**
+     * Constructs a new launcher task, which starts sending updates to its handlers once it is scheduled.
+     */
+    protected LauncherTask() {
+        // The state always changes on the JavaFX thread, before any of the task's event handlers are called
+        this.stateProperty().addListener((observable, oldState, newState) -> {
+            switch (newState) {
+                case SCHEDULED -> pulse.start();
+                case SUCCEEDED, FAILED, CANCELLED -> {
+                    pulse.stop();
+                    this.update();
+                }
+                default -> { }
+            }
+        });
+    }
 
     // Setters
     public void setMessageHandler(Consumer<String> messageHandler) {
@@ -63,78 +87,37 @@ public abstract class LauncherTask<V> extends Task<V> {
     }
 
     /**
-     * Checks if we are currently updating, and if so, then requests for a new update.
-     * Otherwise, runs the update function inside {@link Platform#runLater(Runnable)}.
+     * Sends the latest value of every slot that has changed since the last update to its handler.
+     * Only ever called on the JavaFX thread.
      */
     private void update() {
-        if (!updating.get()) {
-            updating.set(true);
-            Platform.runLater(() -> {
-                // Message
-                synchronized (messageQueue) {
-                    this.sendQueueToConsumer(messageQueue, messageHandler);
-                }
-
-                // Progress 1
-                synchronized (progressQueue) {
-                    this.sendQueueToConsumer(progressQueue, progressHandler);
-                }
-
-                // Progress 2
-                synchronized (progressQueue2) {
-                    this.sendQueueToConsumer(progressQueue2, progressHandler2);
-                }
-
-                // Progress 3
-                synchronized (progressQueue3) {
-                    this.sendQueueToConsumer(progressQueue3, progressHandler3);
-                }
-
-                // Title
-                synchronized (titleQueue) {
-                    this.sendQueueToConsumer(titleQueue, titleHandler);
-                }
-
-                // Value
-                synchronized (valueQueue) {
-                    this.sendQueueToConsumer(valueQueue, valueHandler);
-                }
-
-                updating.set(false);
-                if (updateRequested.get()) {
-                    updateRequested.set(false);
-                    new Thread(this::update).start();
-                }
-            });
-        } else {
-            updateRequested.set(true);
-        }
+        this.sendSlotToConsumer(messageSlot, messageHandler);
+        this.sendSlotToConsumer(progressSlot, progressHandler);
+        this.sendSlotToConsumer(progressSlot2, progressHandler2);
+        this.sendSlotToConsumer(progressSlot3, progressHandler3);
+        this.sendSlotToConsumer(titleSlot, titleHandler);
+        this.sendSlotToConsumer(valueSlot, valueHandler);
     }
 
     /**
-     * Empties the given queue by passing each item into the given consumer.
+     * Empties the given slot by passing its item into the given consumer.
+     * The slot is emptied even if there is no consumer, so a consumer set later only gets newer items.
      *
-     * @param queue The queue to empty.
-     * @param consumer The consumer to pass the queue into.
+     * @param slot The slot to empty.
+     * @param consumer The consumer to pass the item into.
      * @param <T> The type of item we are passing.
      */
-    public <T> void sendQueueToConsumer(Queue<T> queue, @Nullable Consumer<T> consumer) {
-        if (queue.size() > 0 && consumer != null) {
-            T item = queue.poll();
-            while (item != null) {
-                consumer.accept(item);
-                item = queue.poll();
-            }
+    private <T> void sendSlotToConsumer(AtomicReference<T> slot, @Nullable Consumer<T> consumer) {
+        T item = slot.getAndSet(null);
+        if (item != null && consumer != null) {
+            consumer.accept(item);
         }
     }
 
     // Update Methods
     @Override
     protected void updateMessage(String message) {
-        synchronized (messageQueue) {
-            messageQueue.add(message);
-            this.update();
-        }
+        messageSlot.set(message);
         super.updateMessage(message);
     }
 
@@ -145,42 +128,27 @@ public abstract class LauncherTask<V> extends Task<V> {
 
     @Override
     protected void updateProgress(double workDone, double max) {
-        synchronized (progressQueue) {
-            progressQueue.add(new Progress(workDone, max));
-            this.update();
-        }
+        progressSlot.set(new Progress(workDone, max));
         super.updateProgress(workDone, max);
     }
 
     protected void updateProgress2(double workDone, double max) {
-        synchronized (progressQueue2) {
-            progressQueue2.add(new Progress(workDone, max));
-            this.update();
-        }
+        progressSlot2.set(new Progress(workDone, max));
     }
 
     protected void updateProgress3(double workDone, double max) {
-        synchronized (progressQueue3) {
-            progressQueue2.add(new Progress(workDone, max));
-            this.update();
-        }
+        progressSlot3.set(new Progress(workDone, max));
     }
 
     @Override
     protected void updateTitle(String title) {
-        synchronized (titleQueue) {
-            titleQueue.add(title);
-            this.update();
-        }
+        titleSlot.set(title);
         super.updateTitle(title);
     }
 
     @Override
     protected void updateValue(V value) {
-        synchronized (valueQueue) {
-            valueQueue.add(Optional.ofNullable(value));
-            this.update();
-        }
+        valueSlot.set(Optional.ofNullable(value));
         super.updateValue(value);
     }
 
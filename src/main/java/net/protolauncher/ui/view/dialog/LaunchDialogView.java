@@ -1,21 +1,16 @@
 package net.protolauncher.ui.view.dialog;
 
 import javafx.application.Platform;
-import javafx.concurrent.Task;
 import javafx.scene.control.Label;
 import javafx.scene.control.ProgressBar;
 import javafx.scene.layout.VBox;
 import net.protolauncher.App;
+import net.protolauncher.api.LaunchPlan;
 import net.protolauncher.api.Profile;
 import net.protolauncher.api.ProtoLauncher;
 import net.protolauncher.api.User;
 import net.protolauncher.log4j.FeedbackLoggerWrapper;
 import net.protolauncher.log4j.ILogListener;
-import net.protolauncher.mods.version.ModdedVersionInfo;
-import net.protolauncher.mojang.asset.AssetIndex;
-import net.protolauncher.mojang.library.Library;
-import net.protolauncher.mojang.version.Version;
-import net.protolauncher.mojang.version.VersionInfo;
 import net.protolauncher.ui.dialog.Alert;
 import net.protolauncher.ui.dialog.LaunchDialog;
 import net.protolauncher.ui.task.LauncherTask;
@@ -23,11 +18,12 @@ import net.protolauncher.ui.view.AbstractView;
 import net.protolauncher.ui.view.dialog.AlertView.AlertButton;
 
 import java.io.IOException;
-import java.nio.file.Path;
 import java.time.Instant;
 import java.util.EnumSet;
-import java.util.List;
-import java.util.Objects;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static net.protolauncher.App.LOGGER;
 
@@ -40,13 +36,7 @@ public class LaunchDialogView extends AbstractView<VBox> implements ILogListener
     private final User currentUser;
 
     // Variables
-    private double currentStep = 0.0;
-    private final double totalSteps = 6.0;
     private boolean launching = false;
-    private Version version;
-    private Path javaPath = null;
-    private List<Library> libraries;
-    private AssetIndex assetIndex;
 
     // Components
     private ProgressBar pgbProgressBar1;
@@ -103,15 +93,16 @@ public class LaunchDialogView extends AbstractView<VBox> implements ILogListener
         }
         launching = true;
         LOGGER.debug("Performing launch on profile " + profile.getName() + " (" + profile.getUuid() + ") for user " + currentUser.getUsername() + " (" + currentUser.getUuid() + ")...");
-        this.internal_launchTask_downloadVersion();
+        this.internal_launchTask_executePlan();
     }
 
     /**
-     * Task 1: Fetch the version.
+     * Executes the {@link LaunchPlan} for the profile, running its stages concurrently where possible.
      */
-    private void internal_launchTask_downloadVersion() {
-        LOGGER.info("Launch Task: Fetch Version");
-        pgbProgressBar1.setProgress(++currentStep / totalSteps);
+    private void internal_launchTask_executePlan() {
+        pgbProgressBar1.setProgress(0);
+        pgbProgressBar2.setProgress(0);
+        pgbProgressBar3.setProgress(0);
 
         // Mark the profile as the last launched profile
         LOGGER.debug("Marking profile as last launched...");
@@ -123,269 +114,68 @@ public class LaunchDialogView extends AbstractView<VBox> implements ILogListener
             return;
         }
 
-        // Download version task
-        LauncherTask<Version> downloadVersionTask = new LauncherTask<>() {
-            @Override
-            protected Version call() throws Exception {
-                // Get version info
-                VersionInfo versionInfo = Objects.requireNonNull(launcher.getVersionManifest()).getVersion(profile.getVersion().getMinecraft());
-
-                // Download the version itself
-                Version version1 = launcher.downloadVersion(Objects.requireNonNull(versionInfo), (total, transferred) -> {
-                    this.updateProgress(transferred, total);
-                });
-
-                // Download the client jar
-                launcher.downloadVersionClient(version1, (total, transferred) -> {
-                    this.updateProgress(transferred, total);
-                });
-
-                // Download and return version
-                return version1;
-            }
-        };
-
-        // Handle success
-        downloadVersionTask.setOnSucceeded(event -> {
-            version = downloadVersionTask.getValue();
-            if (profile.getVersion().getModdedType() != null) {
-                this.internal_launchTask_injectModLoader();
-            } else {
-                ++currentStep; // account for missing modloader step
-                this.internal_launchTask_downloadJava();
-            }
-        });
-
-        // Handle failure
-        downloadVersionTask.setOnFailed(event -> this.internal_launchFailed(downloadVersionTask.getException()));
-
-        // Handle progress updates
-        downloadVersionTask.setProgressHandler(progress -> {
-            pgbProgressBar2.setProgress(progress.getWorkDone() / progress.getMax());
-            pgbProgressBar1.setProgress((Math.floor(pgbProgressBar1.getProgress() * 10) / 10.0) + pgbProgressBar2.getProgress() / 10);
-        });
-
-        // Run the download version thread
-        Thread downloadVersionThread = new Thread(downloadVersionTask);
-        downloadVersionThread.setName("Download Version Task");
-        downloadVersionThread.start();
-    }
-
-    /**
-     * Task 1.5: Inject Mod Loader.
-     */
-    private void internal_launchTask_injectModLoader() {
-        LOGGER.info("Launch Task: Inject Mod Loader.");
-        pgbProgressBar1.setProgress(++currentStep / totalSteps);
-
-        // Inject Mod Loader Task
-        LauncherTask<Version> injectModLoaderTask = new LauncherTask<>() {
-            @Override
-            protected Version call() throws Exception {
-                // Fetch version info
-                ModdedVersionInfo mvi = Objects.requireNonNull(launcher.getModdedVersionManifest()).getVersion(profile.getVersion().getModdedType(), profile.getVersion().getMinecraft(), profile.getVersion().getModded());
-                if (mvi == null) {
-                    throw new Exception("The requested modded version info does not exist in the modded version manifest!");
-                }
-
-                // Inject
-                return launcher.injectModLoader(version, mvi, (totalSteps1, currentStep1) -> {
-                    this.updateProgress(currentStep1, totalSteps1);
-                }, (total, transferred) -> {
-                    this.updateProgress2(transferred, total);
-                });
-            }
-        };
-
-        // Handle success
-        injectModLoaderTask.setOnSucceeded(event -> {
-            version = injectModLoaderTask.getValue();
-            this.internal_launchTask_downloadJava();
-        });
-
-        // Handle failure
-        injectModLoaderTask.setOnFailed(event -> this.internal_launchFailed(injectModLoaderTask.getException()));
-
-        // Handle progress updates
-        injectModLoaderTask.setProgressHandler(progress -> {
-            pgbProgressBar2.setProgress(progress.getWorkDone() / progress.getMax());
-            pgbProgressBar1.setProgress((Math.floor(pgbProgressBar1.getProgress() * 10) / 10.0) + pgbProgressBar2.getProgress() / 10);
-        });
-
-        // Run the download version thread
-        Thread downloadVersionThread = new Thread(injectModLoaderTask);
-        downloadVersionThread.setName("Inject Mod Loader Task");
-        downloadVersionThread.start();
-    }
-
-    /**
-     * Task 2: Download Java.
-     */
-    private void internal_launchTask_downloadJava() {
-        LOGGER.info("Launch Task: Download Java (if necessary)");
-        pgbProgressBar1.setProgress(++currentStep / totalSteps);
-        pgbProgressBar2.setProgress(0);
-        pgbProgressBar3.setProgress(0);
-
-        // Check if we even need to
-        if (!version.getAssets().equals("pre-1.6")) {
-            LOGGER.info("Downloading Java is not necessary as this version is compatible with post-1.8 Java versions.");
-            this.internal_launchTask_downloadLibraries();
-            return;
-        }
-
-        // Download Java task
-        LauncherTask<Path> downloadJavaTask = new LauncherTask<>() {
-            @Override
-            protected Path call() throws Exception {
-                return launcher.downloadJava((totalSteps1, currentStep1) -> {
-                    this.updateProgress(currentStep1, totalSteps1);
-                }, (total, transferred) -> {
-                    this.updateProgress2(transferred, total);
-                });
-            }
-        };
-
-        // Handle success
-        downloadJavaTask.setOnSucceeded(event -> {
-            javaPath = downloadJavaTask.getValue();
-            this.internal_launchTask_downloadLibraries();
-        });
-
-        // Handle failure
-        downloadJavaTask.setOnFailed(event -> this.internal_launchFailed(downloadJavaTask.getException()));
-
-        // Handle progress updates
-        downloadJavaTask.setProgressHandler(progress -> {
-            pgbProgressBar2.setProgress(progress.getWorkDone() / progress.getMax());
-            pgbProgressBar1.setProgress((Math.floor(pgbProgressBar1.getProgress() * 10) / 10.0) + pgbProgressBar2.getProgress() / 10);
-        });
-        downloadJavaTask.setProgressHandler2(progress -> {
-            pgbProgressBar3.setProgress(progress.getWorkDone() / progress.getMax());
-        });
-
-        // Run the download java thread
-        Thread downloadJavaThread = new Thread(downloadJavaTask);
-        downloadJavaThread.setName("Download Java Task");
-        downloadJavaThread.start();
-    }
-
-    /**
-     * Task 3: Download libraries.
-     */
-    private void internal_launchTask_downloadLibraries() {
-        LOGGER.info("Launch Task: Download Libraries");
-        pgbProgressBar1.setProgress(++currentStep / totalSteps);
-        pgbProgressBar2.setProgress(0);
-        pgbProgressBar3.setProgress(0);
-
-        // Download libraries task
-        LauncherTask<List<Library>> downloadLibrariesTask = new LauncherTask<>() {
-            @Override
-            protected List<Library> call() throws Exception {
-                return launcher.downloadLibraries(version, (totalSteps1, currentStep1) -> {
-                    this.updateProgress(currentStep1, totalSteps1);
-                }, info -> {
-                    LOGGER.info("Downloading " + info + "...");
-                }, (total, transferred) -> {
-                    this.updateProgress2(transferred, total);
-                });
-            }
-        };
-
-        // Handle success
-        downloadLibrariesTask.setOnSucceeded(event -> {
-            libraries = downloadLibrariesTask.getValue();
-            this.internal_launchTask_downloadAssets();
-        });
-
-        // Handle failure
-        downloadLibrariesTask.setOnFailed(event -> this.internal_launchFailed(downloadLibrariesTask.getException()));
-
-        // Handle progress updates
-        downloadLibrariesTask.setProgressHandler(progress -> {
-            pgbProgressBar2.setProgress(progress.getWorkDone() / progress.getMax());
-            pgbProgressBar1.setProgress((Math.floor(pgbProgressBar1.getProgress() * 10) / 10.0) + pgbProgressBar2.getProgress() / 10);
-        });
-        downloadLibrariesTask.setProgressHandler2(progress -> {
-            pgbProgressBar3.setProgress(progress.getWorkDone() / progress.getMax());
-        });
-
-        // Run the download libraries thread
-        Thread downloadLibrariesThread = new Thread(downloadLibrariesTask);
-        downloadLibrariesThread.setName("Download Libraries Task");
-        downloadLibrariesThread.start();
-    }
-
-    /**
-     * Task 4: Download assets.
-     */
-    private void internal_launchTask_downloadAssets() {
-        LOGGER.info("Launch Task: Download Assets");
-        pgbProgressBar1.setProgress(++currentStep / totalSteps);
-        pgbProgressBar2.setProgress(0);
-        pgbProgressBar3.setProgress(0);
-
-        // Download assets task
-        LauncherTask<AssetIndex> downloadAssetsTask = new LauncherTask<>() {
-            @Override
-            protected AssetIndex call() throws Exception {
-                return launcher.downloadAssets(version, Path.of(profile.getPath()), (totalSteps1, currentStep1) -> {
-                    this.updateProgress(currentStep1, totalSteps1);
-                }, info -> {
-                    LOGGER.info("Downloading " + info + "...");
-                }, (total, transferred) -> {
-                    this.updateProgress2(transferred, total);
-                });
-            }
-        };
-
-        // Handle success
-        downloadAssetsTask.setOnSucceeded(event -> {
-            assetIndex = downloadAssetsTask.getValue();
-            this.internal_launchTask_launch();
-        });
-
-        // Handle failure
-        downloadAssetsTask.setOnFailed(event -> this.internal_launchFailed(downloadAssetsTask.getException()));
-
-        // Handle progress updates
-        downloadAssetsTask.setProgressHandler(progress -> {
-            pgbProgressBar2.setProgress(progress.getWorkDone() / progress.getMax());
-            pgbProgressBar1.setProgress((Math.floor(pgbProgressBar1.getProgress() * 10) / 10.0) + pgbProgressBar2.getProgress() / 10);
-        });
-        downloadAssetsTask.setProgressHandler2(progress -> {
-            pgbProgressBar3.setProgress(progress.getWorkDone() / progress.getMax());
-        });
-
-        // Run the download libraries thread
-        Thread downloadAssetsThread = new Thread(downloadAssetsTask);
-        downloadAssetsThread.setName("Download Assets Task");
-        downloadAssetsThread.start();
-    }
-
-    /**
-     * Task 5: Launch!
-     */
-    private void internal_launchTask_launch() {
-        LOGGER.info("Launch Task: Launch");
-        pgbProgressBar1.setProgress(++currentStep / totalSteps);
-        pgbProgressBar2.setProgress(0);
-        pgbProgressBar3.setProgress(0);
-
-        // Launch task
-        Task<Process> launchTask = new Task<>() {
+        // Launch plan task
+        LaunchPlan plan = new LaunchPlan(launcher, currentUser, profile, App.VERSION);
+        LauncherTask<Process> launchTask = new LauncherTask<>() {
             @Override
             protected Process call() throws Exception {
-                return launcher.launch(
-                    currentUser,
-                    profile,
-                    version,
-                    libraries,
-                    assetIndex,
-                    javaPath,
-                    App.VERSION
-                );
+                AtomicInteger completedStages = new AtomicInteger();
+                int totalStages = LaunchPlan.Stage.values().length;
+
+                // Stages run concurrently, so the step and download bars show the sum of every stage's
+                // { done, total } rather than whichever stage reported last
+                Map<LaunchPlan.Stage, long[]> steps = new ConcurrentHashMap<>();
+                Map<LaunchPlan.Stage, long[]> downloads = new ConcurrentHashMap<>();
+                try {
+                    return plan.execute(new LaunchPlan.Listener() {
+                        @Override
+                        public void stageStarted(LaunchPlan.Stage stage) {
+                            LOGGER.info("Launch Task: " + stage.getTitle());
+                        }
+
+                        @Override
+                        public void stageCompleted(LaunchPlan.Stage stage) {
+                            steps.computeIfPresent(stage, (key, value) -> new long[] { value[1], value[1] });
+                            downloads.computeIfPresent(stage, (key, value) -> new long[] { value[1], value[1] });
+                            updateProgress(completedStages.incrementAndGet(), totalStages);
+                            this.report();
+                        }
+
+                        @Override
+                        public void stepProgress(LaunchPlan.Stage stage, int totalSteps, int currentStep) {
+                            steps.put(stage, new long[] { currentStep, totalSteps });
+                            this.report();
+                        }
+
+                        @Override
+                        public void stepInfo(LaunchPlan.Stage stage, String info) {
+                            LOGGER.info("Downloading " + info + "...");
+                        }
+
+                        @Override
+                        public void downloadProgress(LaunchPlan.Stage stage, long total, long transferred) {
+                            if (total > 0) {
+                                downloads.put(stage, new long[] { Math.min(transferred, total), total });
+                                this.report();
+                            }
+                        }
+
+                        // Reports the summed progress of every stage to the step and download bars.
+                        private void report() {
+                            long[] step = sum(steps);
+                            long[] download = sum(downloads);
+                            if (step[1] > 0) {
+                                updateProgress2(step[0], step[1]);
+                            }
+                            if (download[1] > 0) {
+                                updateProgress3(download[0], download[1]);
+                            }
+                        }
+                    }).get();
+                } catch (ExecutionException e) {
+                    Throwable cause = LaunchPlan.unwrap(e);
+                    throw cause instanceof Exception ? (Exception) cause : e;
+                }
             }
         };
 
@@ -403,12 +193,37 @@ public class LaunchDialogView extends AbstractView<VBox> implements ILogListener
         // Handle failure
         launchTask.setOnFailed(event -> this.internal_launchFailed(launchTask.getException()));
 
+        // Handle progress updates
+        launchTask.setProgressHandler(progress -> {
+            pgbProgressBar1.setProgress(progress.getWorkDone() / progress.getMax());
+        });
+        launchTask.setProgressHandler2(progress -> {
+            pgbProgressBar2.setProgress(progress.getWorkDone() / progress.getMax());
+        });
+        launchTask.setProgressHandler3(progress -> {
+            pgbProgressBar3.setProgress(progress.getWorkDone() / progress.getMax());
+        });
+
         // Run the launch thread
         Thread launchThread = new Thread(launchTask);
         launchThread.setName("Launch Task");
         launchThread.start();
     }
 
+    /**
+     * Sums the { done, total } progress of every stage.
+     * @param progress The progress of every stage.
+     * @return The summed { done, total }.
+     */
+    private static long[] sum(Map<LaunchPlan.Stage, long[]> progress) {
+        long[] sum = new long[2];
+        for (long[] value : progress.values()) {
+            sum[0] += value[0];
+            sum[1] += value[1];
+        }
+        return sum;
+    }
+
     /**
      * Handle a failed launch.
      * @param e The error.
@@ -173,7 +173,7 @@ public class UsersTab extends AbstractView<Pane> {
             @Override
             protected Void call() throws Exception {
                 launcher.switchUser(user);
-                launcher.validateUser(user.getUuid());
+                launcher.getUserValidation().validate(user.getUuid());
                 // TODO: Prompt user to log in again if their user is invalid
                 return null;
             }
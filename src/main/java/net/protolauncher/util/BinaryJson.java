@@ -0,0 +1,176 @@
+package net.protolauncher.util;
+
+import com.google.gson.*;
+import com.google.gson.internal.LazilyParsedNumber;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Provides a compact binary encoding of JSON trees.
+ * <br/><br/>
+ * Every element is written as a one byte tag followed by its contents, and every string (both keys and values)
+ * is only written in full the first time it shows up; after that, it is written as a reference to the first time.
+ * JSON files like version files repeat the same few keys and values over and over, so this makes them a lot smaller
+ * and means reading them back doesn't have to tokenize any text or allocate the same string twice.
+ */
+public class BinaryJson {
+
+    // Tags
+    private static final byte TAG_NULL = 0;
+    private static final byte TAG_TRUE = 1;
+    private static final byte TAG_FALSE = 2;
+    private static final byte TAG_NUMBER = 3;
+    private static final byte TAG_STRING = 4;
+    private static final byte TAG_ARRAY = 5;
+    private static final byte TAG_OBJECT = 6;
+
+    // Suppress default constructor
+    private BinaryJson() { }
+
+    /**
+     * Writes the given JSON tree.
+     *
+     * @param out The output to write to.
+     * @param element The JSON tree to write.
+     * @throws IOException Thrown if writing fails.
+     */
+    public static void write(DataOutput out, JsonElement element) throws IOException {
+        writeElement(out, element, new HashMap<>());
+    }
+
+    /**
+     * Reads a JSON tree written by {@link BinaryJson#write(DataOutput, JsonElement)}.
+     *
+     * @param in The input to read from.
+     * @return The JSON tree.
+     * @throws IOException Thrown if reading fails or the input is not a valid encoding.
+     */
+    public static JsonElement read(DataInput in) throws IOException {
+        return readElement(in, new ArrayList<>());
+    }
+
+    // Writes a single element and everything in it.
+    private static void writeElement(DataOutput out, JsonElement element, Map<String, Integer> strings) throws IOException {
+        if (element == null || element.isJsonNull()) {
+            out.writeByte(TAG_NULL);
+        } else if (element.isJsonObject()) {
+            JsonObject obj = element.getAsJsonObject();
+            out.writeByte(TAG_OBJECT);
+            writeCount(out, obj.size());
+            for (Map.Entry<String, JsonElement> entry : obj.entrySet()) {
+                writeString(out, entry.getKey(), strings);
+                writeElement(out, entry.getValue(), strings);
+            }
+        } else if (element.isJsonArray()) {
+            JsonArray arr = element.getAsJsonArray();
+            out.writeByte(TAG_ARRAY);
+            writeCount(out, arr.size());
+            for (JsonElement item : arr) {
+                writeElement(out, item, strings);
+            }
+        } else {
+            JsonPrimitive primitive = element.getAsJsonPrimitive();
+            if (primitive.isBoolean()) {
+                out.writeByte(primitive.getAsBoolean() ? TAG_TRUE : TAG_FALSE);
+            } else if (primitive.isNumber()) {
+                // Numbers are kept in their textual form so they come back exactly as they were
+                out.writeByte(TAG_NUMBER);
+                writeString(out, primitive.getAsString(), strings);
+            } else {
+                out.writeByte(TAG_STRING);
+                writeString(out, primitive.getAsString(), strings);
+            }
+        }
+    }
+
+    // Reads a single element and everything in it.
+    private static JsonElement readElement(DataInput in, List<String> strings) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case TAG_NULL:
+                return JsonNull.INSTANCE;
+            case TAG_TRUE:
+                return new JsonPrimitive(true);
+            case TAG_FALSE:
+                return new JsonPrimitive(false);
+            case TAG_NUMBER:
+                return new JsonPrimitive(new LazilyParsedNumber(readString(in, strings)));
+            case TAG_STRING:
+                return new JsonPrimitive(readString(in, strings));
+            case TAG_ARRAY: {
+                int count = readCount(in);
+                JsonArray arr = new JsonArray(count);
+                for (int i = 0; i < count; i++) {
+                    arr.add(readElement(in, strings));
+                }
+                return arr;
+            }
+            case TAG_OBJECT: {
+                int count = readCount(in);
+                JsonObject obj = new JsonObject();
+                for (int i = 0; i < count; i++) {
+                    String key = readString(in, strings);
+                    obj.add(key, readElement(in, strings));
+                }
+                return obj;
+            }
+            default:
+                throw new IOException("Invalid binary JSON tag: " + tag);
+        }
+    }
+
+    // Writes a string in full the first time, and as a reference to it every time after.
+    private static void writeString(DataOutput out, String string, Map<String, Integer> strings) throws IOException {
+        Integer reference = strings.get(string);
+        if (reference != null) {
+            writeCount(out, reference + 1);
+        } else {
+            strings.put(string, strings.size());
+            writeCount(out, 0);
+            out.writeUTF(string);
+        }
+    }
+
+    // Reads a string written by writeString.
+    private static String readString(DataInput in, List<String> strings) throws IOException {
+        int reference = readCount(in);
+        if (reference == 0) {
+            String string = in.readUTF();
+            strings.add(string);
+            return string;
+        } else if (reference <= strings.size()) {
+            return strings.get(reference - 1);
+        } else {
+            throw new IOException("Invalid binary JSON string reference: " + reference);
+        }
+    }
+
+    // Writes a non-negative count as a variable length integer.
+    private static void writeCount(DataOutput out, int count) throws IOException {
+        while ((count & ~0x7F) != 0) {
+            out.writeByte((count & 0x7F) | 0x80);
+            count >>>= 7;
+        }
+        out.writeByte(count);
+    }
+
+    // Reads a variable length integer written by writeCount.
+    private static int readCount(DataInput in) throws IOException {
+        int count = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = in.readByte();
+            count |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return count;
+            }
+        }
+        throw new IOException("Invalid binary JSON count!");
+    }
+
+}
@@ -0,0 +1,27 @@
+package net.protolauncher.util;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a request is answered with an errored (>= 400) HTTP response code.
+ */
+public class HttpStatusException extends IOException {
+
+    // Constants
+    private static final long serialVersionUID = 1L;
+
+    // Variables
+    private final int statusCode;
+
+    // Constructor
+    public HttpStatusException(int statusCode) {
+        super(statusCode + (statusCode < 500 ? " Bad Request" : " Internal Server Error"));
+        this.statusCode = statusCode;
+    }
+
+    // Getters
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+}
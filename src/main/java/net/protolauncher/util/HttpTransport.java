@@ -0,0 +1,177 @@
+package net.protolauncher.util;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandler;
+import java.net.http.HttpResponse.BodySubscribers;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Provides the shared HTTP transport that every request made by the launcher goes through.
+ * <br/><br/>
+ * A single {@link HttpClient} is shared for the whole application, so connections are pooled and kept alive
+ * between requests, and hosts that support HTTP/2 have their requests multiplexed over one connection rather
+ * than paying for a new TLS handshake on every request.
+ * <br/><br/>
+ * The client's own timeouts only cover connecting and waiting for the response headers, so response bodies read as
+ * a stream through {@link HttpTransport#ofInputStream()} also get a read timeout: if no data arrives for a while, the
+ * stream is closed and the read fails with an {@link HttpTimeoutException} instead of hanging forever.
+ */
+public class HttpTransport {
+
+    // Constants
+    public static final String USER_AGENT = "ProtoLauncher/1.0";
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final Duration READ_TIMEOUT = Duration.ofSeconds(30);
+
+    // The shared client
+    private static final HttpClient CLIENT = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_2)
+        .followRedirects(HttpClient.Redirect.NORMAL)
+        .connectTimeout(CONNECT_TIMEOUT)
+        .build();
+
+    // The watchdog that closes streams which stopped receiving data
+    private static final ScheduledExecutorService WATCHDOG = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "HTTP Read Watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Suppress default constructor
+    private HttpTransport() { }
+
+    /**
+     * Returns the shared {@link HttpClient}.
+     * @return The shared {@link HttpClient}.
+     */
+    public static HttpClient getClient() {
+        return CLIENT;
+    }
+
+    /**
+     * Creates a new request builder for the given url with the launcher's user-agent and request timeout.
+     * The request timeout only covers waiting for the response headers, not reading the body.
+     *
+     * @param url The url to create the request for.
+     * @return A new {@link HttpRequest.Builder}.
+     * @throws IOException Thrown if the url can not be converted to a URI.
+     */
+    public static HttpRequest.Builder newRequest(URL url) throws IOException {
+        try {
+            return HttpRequest.newBuilder(url.toURI())
+                .timeout(REQUEST_TIMEOUT)
+                .header("User-Agent", USER_AGENT);
+        } catch (URISyntaxException e) {
+            throw new IOException("Invalid URL: " + url, e);
+        }
+    }
+
+    /**
+     * Sends the given request through the shared client, waiting for the response.
+     *
+     * @param request The request to send.
+     * @param handler The handler for the response body.
+     * @param <T> The type of the response body.
+     * @return The {@link HttpResponse}.
+     * @throws IOException Thrown if sending the request fails or the thread is interrupted while waiting.
+     */
+    public static <T> HttpResponse<T> send(HttpRequest request, BodyHandler<T> handler) throws IOException {
+        try {
+            return CLIENT.send(request, handler);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for " + request.uri());
+        }
+    }
+
+    /**
+     * Creates a body handler that returns the response body as a stream, with a read timeout.
+     * Every read on the stream must receive data within the read timeout, otherwise the stream is closed and the
+     * read throws an {@link HttpTimeoutException}.
+     *
+     * @return A new {@link BodyHandler}.
+     */
+    public static BodyHandler<InputStream> ofInputStream() {
+        return info -> BodySubscribers.mapping(BodySubscribers.ofInputStream(), TimedInputStream::new);
+    }
+
+    /**
+     * A stream that closes itself if a read does not receive any data within the read timeout.
+     * Closing the stream is what wakes up the blocked read, which then fails with an {@link HttpTimeoutException}.
+     */
+    private static class TimedInputStream extends FilterInputStream {
+
+        // Variables
+        private volatile boolean timedOut;
+
+        // Constructor
+        private TimedInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            ScheduledFuture<?> deadline = this.arm();
+            try {
+                return super.read();
+            } catch (IOException e) {
+                throw this.translate(e);
+            } finally {
+                deadline.cancel(false);
+            }
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            ScheduledFuture<?> deadline = this.arm();
+            try {
+                return super.read(b, off, len);
+            } catch (IOException e) {
+                throw this.translate(e);
+            } finally {
+                deadline.cancel(false);
+            }
+        }
+
+        // Schedules the stream to be closed if the read takes too long.
+        private ScheduledFuture<?> arm() {
+            return WATCHDOG.schedule(this::expire, READ_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        // Closes the stream because the read took too long.
+        private void expire() {
+            timedOut = true;
+            try {
+                in.close();
+            } catch (IOException ignored) {
+                // The read is failing either way
+            }
+        }
+
+        // Replaces the failure of a read that took too long with a timeout.
+        private IOException translate(IOException e) {
+            if (!timedOut) {
+                return e;
+            }
+            HttpTimeoutException timeout = new HttpTimeoutException("No data was received for " + READ_TIMEOUT.toSeconds() + " seconds");
+            timeout.initCause(e);
+            return timeout;
+        }
+
+    }
+
+}
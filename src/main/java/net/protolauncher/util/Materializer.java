@@ -0,0 +1,71 @@
+package net.protolauncher.util;
+
+import java.io.IOException;
+import java.nio.file.*;
+
+/**
+ * Provides a way to make files from one folder available in a second folder without duplicating them where possible.
+ * <br/><br/>
+ * The strategy is resolved once for the pair of folders: files are hard linked when both folders are on the same file
+ * store, otherwise they are copied. If the file store turns out not to support hard links, the first failed link
+ * switches the materializer over to copying for every file after it.
+ * <br/><br/>
+ * A hard link is the same file as its source, so writing to the target in place also changes the source. Linking
+ * should therefore only be allowed for targets that nothing writes to, otherwise the shared source can be corrupted
+ * for everyone using it.
+ */
+public class Materializer {
+
+    // Variables
+    private volatile Strategy strategy;
+
+    /**
+     * Constructs a new materializer for the given pair of folders, which must both exist.
+     *
+     * @param sourceFolder The folder the files are materialized from.
+     * @param targetFolder The folder the files are materialized into.
+     * @param allowLinks Whether files may be hard linked. Should be false if anything may write to the targets.
+     * @throws IOException Thrown if the file store of either folder can not be determined.
+     */
+    public Materializer(Path sourceFolder, Path targetFolder, boolean allowLinks) throws IOException {
+        if (allowLinks && Files.getFileStore(sourceFolder).equals(Files.getFileStore(targetFolder))) {
+            this.strategy = Strategy.HARDLINK;
+        } else {
+            this.strategy = Strategy.COPY;
+        }
+    }
+
+    /**
+     * Makes the source file available at the target path, replacing anything that is already there.
+     * The parent directories of the target must already exist.
+     *
+     * @param source The file to materialize, inside the source folder.
+     * @param target The path to materialize the file at, inside the target folder.
+     * @throws IOException Thrown if both linking and copying the file fail.
+     */
+    public void materialize(Path source, Path target) throws IOException {
+        if (strategy == Strategy.HARDLINK) {
+            try {
+                Files.deleteIfExists(target);
+                Files.createLink(target, source);
+                return;
+            } catch (FileAlreadyExistsException e) {
+                // Somebody else created the target in the meantime, which says nothing about the store
+            } catch (UnsupportedOperationException | FileSystemException e) {
+                strategy = Strategy.COPY;
+            }
+        }
+
+        // Fall back to copying
+        Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Represents how files are materialized.
+     */
+    private enum Strategy {
+        HARDLINK,
+        COPY
+    }
+
+}
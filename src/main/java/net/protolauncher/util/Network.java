@@ -1,6 +1,7 @@
 package net.protolauncher.util;
 
-import javax.net.ssl.HttpsURLConnection;
+import org.jetbrains.annotations.Nullable;
+
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -8,102 +9,116 @@ import java.io.OutputStream;
 import java.net.Inet4Address;
 import java.net.URL;
 import java.net.UnknownHostException;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
+import java.security.MessageDigest;
+import java.util.OptionalLong;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
 /**
  * Provides various utilities regarding networking and handling connections.
+ * All requests go through the shared {@link HttpTransport}.
  */
 public class Network {
 
-    // User-agent
-    private static final String USER_AGENT = "ProtoLauncher/1.0";
-
     // Suppress default constructor
     private Network() { }
 
     /**
-     * Creates a request to the given url using the given method.
+     * Creates a request builder for the given url.
      * Optionally appends the <code>application/json</code> Content-Type and Accept headers.
+     * The request method and body should be set by the caller; the default is a GET request.
      *
      * @param url The url to connect to.
-     * @param method The request method to use.
      * @param json Whether to append the <code>application/json</code> Content-Type and Accept headers.
-     * @return A new {@link HttpsURLConnection}.
-     * @throws IOException Thrown if creating the connection fails.
+     * @return A new {@link HttpRequest.Builder}.
+     * @throws IOException Thrown if creating the request fails.
      */
-    public static HttpsURLConnection createConnection(URL url, String method, boolean json) throws IOException {
-        // Open a new connection and set the method and user-agent
-        HttpsURLConnection connection = (HttpsURLConnection) url.openConnection();
-        connection.setRequestMethod(method);
-        connection.setRequestProperty("User-Agent", USER_AGENT);
+    public static HttpRequest.Builder createRequest(URL url, boolean json) throws IOException {
+        HttpRequest.Builder builder = HttpTransport.newRequest(url);
 
         // If JSON, then set Content-Type and Accept headers
         if (json) {
-            connection.setRequestProperty("Content-Type", "application/json");
-            connection.setRequestProperty("Accept", "application/json");
+            builder.header("Content-Type", "application/json");
+            builder.header("Accept", "application/json");
         }
 
-        // Enable reading responses and return the connection
-        connection.setDoOutput(true);
-        return connection;
+        // Return the builder
+        return builder;
     }
 
     /**
-     * Sends a request using the given connection.
+     * Sends the given request and returns the response body as a stream.
      * Optionally will throw an IO exception if the HTTP response code is errored (>= 400).
+     * The returned stream must be closed by the caller so the connection can be reused.
      *
-     * @param connection The connection to get the response from.
+     * @param request The request to send.
      * @param safe Whether to throw an exception if the response code is errored (>= 400).
      * @return A new {@link InputStream}.
      * @throws IOException Thrown if <code>safe</code> is true and the response code is errored (>= 400).
      */
-    public static InputStream send(HttpsURLConnection connection, boolean safe) throws IOException {
+    public static InputStream send(HttpRequest request, boolean safe) throws IOException {
         // Send the request
-        int code = connection.getResponseCode();
+        HttpResponse<InputStream> response = HttpTransport.send(request, HttpTransport.ofInputStream());
 
         // Handle a "safe" request
         if (safe) {
-            if (code >= 400 && code < 500) {
-                throw new IOException(code + " Bad Request");
-            } else if (code >= 500) {
-                throw new IOException(code + " Internal Server Error");
-            }
+            checkStatus(response);
         }
 
-        // Determine the correct stream
-        InputStream stream;
-        if (code >= 400) {
-            stream = connection.getErrorStream();
-        } else {
-            stream = connection.getInputStream();
+        // Return the stream
+        return response.body();
+    }
+
+    /**
+     * Throws an IO exception if the response code of the given response is errored (>= 400), closing its body first.
+     *
+     * @param response The response to check.
+     * @throws HttpStatusException Thrown if the response code is errored (>= 400).
+     */
+    private static void checkStatus(HttpResponse<InputStream> response) throws IOException {
+        if (response.statusCode() >= 400) {
+            response.body().close();
+            throw new HttpStatusException(response.statusCode());
         }
+    }
 
-        // Return the stream
-        return stream;
+    /**
+     * Sends the given request erroring if the response code is errored (>= 400).
+     * @see Network#send(HttpRequest, boolean)
+     */
+    public static InputStream send(HttpRequest request) throws IOException {
+        return send(request, true);
     }
 
     /**
-     * Sends a request using the given connection erroring if the response code is errored (>= 400).
-     * @see Network#send(HttpsURLConnection, boolean)
+     * Sends the given request, discards the response body, and returns the response code.
+     *
+     * @param request The request to send.
+     * @return The HTTP response code.
+     * @throws IOException Thrown if sending the request fails.
      */
-    public static InputStream send(HttpsURLConnection connection) throws IOException {
-        return send(connection, true);
+    public static int sendForStatus(HttpRequest request) throws IOException {
+        return HttpTransport.send(request, BodyHandlers.discarding()).statusCode();
     }
 
     /**
-     * Creates a connection using the given url, sends it, and returns the responding stream.
+     * Sends a GET request to the given url and returns the responding stream.
      * Useful for requesting a file.
      *
      * @param url The url to fetch.
      * @return A new {@link InputStream}.
      * @throws IOException Thrown if the response code is errored (>= 400).
-     * @see Network#createConnection(URL, String, boolean)
-     * @see Network#send(HttpsURLConnection, boolean)
+     * @see Network#createRequest(URL, boolean)
+     * @see Network#send(HttpRequest, boolean)
      */
     public static InputStream fetch(URL url) throws IOException {
-        return send(createConnection(url, "GET", false), true);
+        return send(createRequest(url, false).GET().build(), true);
     }
 
     /**
@@ -111,43 +126,157 @@ public class Network {
      * returns the value of it.
      *
      * @param url The url to get the headers for.
-     * @return The value of the Content-Length header, or null if there is not one.
+     * @return The value of the Content-Length header, or an empty optional if there is not one.
+     * @throws HttpStatusException Thrown if the response code is not successful (2xx).
      */
-    public static Long fetchFileSize(URL url) throws IOException {
-        return Long.parseLong(createConnection(url, "HEAD", false).getHeaderField("Content-Length"));
+    public static OptionalLong fetchFileSize(URL url) throws IOException {
+        HttpRequest request = createRequest(url, false).method("HEAD", HttpRequest.BodyPublishers.noBody()).build();
+        HttpResponse<Void> response = HttpTransport.send(request, BodyHandlers.discarding());
+        if (response.statusCode() < 200 || response.statusCode() >= 300) {
+            throw new HttpStatusException(response.statusCode());
+        }
+        return response.headers().firstValueAsLong("Content-Length");
     }
 
     /**
      * Fetches a file from the given url and copies the stream to the given path,
      * replacing any existing files and giving a progress update during the download.
      * <br/><br/>
-     * Essentially the same as {@link Network#download(URL, Path)} but with a progress update consumer.
+     * The file is first written to a <code>.part</code> file next to the path and is only moved into place once it
+     * is complete, so an interrupted download never leaves a truncated file behind. If a sha1 is given, it is computed
+     * over the bytes as they are written and the file is only moved into place if it matches. Since a sha1 pins the
+     * content, a <code>.part</code> file left behind by an interrupted download is then resumed with a Range request
+     * instead of being downloaded again from the start.
      *
      * @param url The url of the file.
      * @param path The path to write the file to.
+     * @param sha1 The sha1 to validate the file against, or null to skip validation.
      * @param progressUpdate Called every time there is a progress update in downloading the file.
-     * @throws IOException Thrown if the response code is errored (>= 400)
+     * @throws IOException Thrown if the response code is errored (>= 400) or the file does not match the given sha1.
      * @see Network#fetch(URL)
      */
-    public static void download(URL url, Path path, Consumer<Long> progressUpdate) throws IOException {
+    public static void download(URL url, Path path, @Nullable String sha1, Consumer<Long> progressUpdate) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".part");
+        MessageDigest digest = sha1 != null ? Validation.createSha1Digest() : null;
+
+        // Only resume if the content is pinned by a sha1, otherwise the file could have changed since the partial was written
+        long existing = 0;
+        if (Files.exists(temp, LinkOption.NOFOLLOW_LINKS)) {
+            if (digest != null) {
+                existing = Files.size(temp);
+            } else {
+                Files.delete(temp);
+            }
+        }
+
+        // Send the request, asking for the remaining bytes if there is a partial
+        HttpRequest.Builder builder = createRequest(url, false).GET();
+        if (existing > 0) {
+            builder.header("Range", "bytes=" + existing + "-");
+        }
+        HttpResponse<InputStream> response = HttpTransport.send(builder.build(), HttpTransport.ofInputStream());
+
+        // The partial is already complete (or bigger than the file), so start over
+        if (existing > 0 && response.statusCode() == 416) {
+            response.body().close();
+            Files.delete(temp);
+            download(url, path, sha1, progressUpdate);
+            return;
+        }
+        checkStatus(response);
+
+        // If the server ignored the range it is sending the whole file, otherwise hash the partial we already have
+        boolean resumed = existing > 0 && response.statusCode() == 206;
+        if (resumed) {
+            try (InputStream in = Files.newInputStream(temp, StandardOpenOption.READ, LinkOption.NOFOLLOW_LINKS)) {
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = in.read(buffer, 0, 8192)) >= 0) {
+                    digest.update(buffer, 0, read);
+                }
+            }
+        } else {
+            existing = 0;
+        }
+
+        // Perform transfer, hashing as we go
+        // On failure the partial is kept so the next attempt can resume it
+        transfer(response.body(), temp, resumed, digest, existing, progressUpdate);
+
+        // Validate before moving into place
+        if (digest != null && !Validation.bytesToHex(digest.digest()).equalsIgnoreCase(sha1)) {
+            Files.deleteIfExists(temp);
+            throw new ValidationException("Validation failed for " + path.getFileName() + "!");
+        }
+
         // Handle "replace existing files"
-        Files.deleteIfExists(path);
-
-        // Fetch streams
-        InputStream in = fetch(url);
-        OutputStream out = Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE, LinkOption.NOFOLLOW_LINKS);
-
-        // Perform transfer (equivalent to InputStream#transferTo)
-        long transferred = 0;
-        byte[] buffer = new byte[8192];
-        int read;
-        while ((read = in.read(buffer, 0, 8192)) >= 0) {
-            out.write(buffer, 0, read);
-            transferred += read;
+        commit(temp, path);
+    }
+
+    /**
+     * Copies the given stream into the given file (equivalent to {@link InputStream#transferTo(OutputStream)}),
+     * closing the stream afterwards.
+     *
+     * @param body The stream to copy.
+     * @param file The file to write to.
+     * @param append Whether to append to the file instead of replacing its contents.
+     * @param digest The digest to update with every byte written, or null to skip hashing.
+     * @param existing The amount of bytes already in the file, to start the progress at.
+     * @param progressUpdate Called every time there is a progress update in writing the file.
+     * @throws IOException Thrown if reading the stream fails.
+     * @throws FileSystemException Thrown if writing the file fails, so it can be told apart from a network failure.
+     */
+    private static void transfer(InputStream body, Path file, boolean append, @Nullable MessageDigest digest, long existing, Consumer<Long> progressUpdate) throws IOException {
+        try (
+            InputStream in = body;
+            OutputStream out = Files.newOutputStream(file, StandardOpenOption.CREATE, append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE, LinkOption.NOFOLLOW_LINKS)
+        ) {
+            long transferred = existing;
             progressUpdate.accept(transferred);
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer, 0, 8192)) >= 0) {
+                try {
+                    out.write(buffer, 0, read);
+                } catch (IOException e) {
+                    throw (FileSystemException) new FileSystemException(file.toString(), null, e.getMessage()).initCause(e);
+                }
+                if (digest != null) {
+                    digest.update(buffer, 0, read);
+                }
+                transferred += read;
+                progressUpdate.accept(transferred);
+            }
+        }
+    }
+
+    /**
+     * Moves the given temporary file into place, atomically if the file system supports it.
+     *
+     * @param temp The temporary file.
+     * @param path The path to move it to.
+     * @throws IOException Thrown if moving the file fails.
+     */
+    private static void commit(Path temp, Path path) throws IOException {
+        try {
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
         }
     }
 
+    /**
+     * Fetches a file from the given url and copies the stream to the given path,
+     * replacing any existing files and giving a progress update during the download.
+     * <br/><br/>
+     * Essentially the same as {@link Network#download(URL, Path)} but with a progress update consumer.
+     *
+     * @see Network#download(URL, Path, String, Consumer)
+     */
+    public static void download(URL url, Path path, Consumer<Long> progressUpdate) throws IOException {
+        download(url, path, null, progressUpdate);
+    }
+
     /**
      * Fetches a file from the given url and copies the stream to the given path,
      * replacing any existing files.
@@ -158,7 +287,55 @@ public class Network {
      * @see Network#fetch(URL)
      */
     public static void download(URL url, Path path) throws IOException {
-        Files.copy(fetch(url), path, StandardCopyOption.REPLACE_EXISTING);
+        download(url, path, null, progress -> { });
+    }
+
+    /**
+     * Fetches a file from the given url only if it has changed since it was last downloaded, and copies the stream
+     * to the given path, replacing any existing files and giving a progress update during the download.
+     * <br/><br/>
+     * The request is made conditional with the <code>If-None-Match</code> and <code>If-Modified-Since</code> headers,
+     * using the <code>ETag</code> and <code>Last-Modified</code> values of the last download. If the server responds
+     * with a 304, nothing is written at all. Since the size of the file is taken from the response itself,
+     * no separate HEAD request is needed for the progress.
+     *
+     * @param url The url of the file.
+     * @param path The path to write the file to.
+     * @param eTag The <code>ETag</code> of the last download, or null if there is none.
+     * @param lastModified The <code>Last-Modified</code> of the last download, or null if there is none.
+     * @param progressUpdate Called every time there is a progress update in downloading the file, with the total
+     *                       size of the file (or null if it is unknown) and the amount transferred.
+     * @return The headers of the response, or null if the file has not been modified.
+     * @throws IOException Thrown if the response code is errored (>= 400).
+     */
+    @Nullable
+    public static HttpHeaders downloadIfModified(URL url, Path path, @Nullable String eTag, @Nullable String lastModified, BiConsumer<Long, Long> progressUpdate) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".part");
+        Files.deleteIfExists(temp);
+
+        // Send the request, only asking for the file if it changed
+        HttpRequest.Builder builder = createRequest(url, false).GET();
+        if (eTag != null) {
+            builder.header("If-None-Match", eTag);
+        }
+        if (lastModified != null) {
+            builder.header("If-Modified-Since", lastModified);
+        }
+        HttpResponse<InputStream> response = HttpTransport.send(builder.build(), HttpTransport.ofInputStream());
+
+        // Nothing changed
+        if (response.statusCode() == 304) {
+            response.body().close();
+            return null;
+        }
+        checkStatus(response);
+
+        // Perform transfer and move into place
+        OptionalLong length = response.headers().firstValueAsLong("Content-Length");
+        Long total = length.isPresent() ? length.getAsLong() : null;
+        transfer(response.body(), temp, false, null, 0, transferred -> progressUpdate.accept(total, transferred));
+        commit(temp, path);
+        return response.headers();
     }
 
     /**
@@ -213,20 +390,22 @@ public class Network {
     }
 
     /**
-     * Converts the given {@link InputStream} to a string.
+     * Converts the given {@link InputStream} to a string, closing the stream afterwards.
      *
      * @param stream The {@link InputStream} to convert to a string.
      * @return The given {@link InputStream} as a string.
      * @throws IOException Thrown if there is an error reading the stream.
      */
     public static String stringify(InputStream stream) throws IOException {
-        ByteArrayOutputStream string = new ByteArrayOutputStream();
-        byte[] buffer = new byte[1024];
-        int length;
-        while ((length = stream.read(buffer)) != -1) {
-            string.write(buffer, 0, length);
+        try (stream) {
+            ByteArrayOutputStream string = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1024];
+            int length;
+            while ((length = stream.read(buffer)) != -1) {
+                string.write(buffer, 0, length);
+            }
+            return string.toString(StandardCharsets.UTF_8);
         }
-        return string.toString(StandardCharsets.UTF_8);
     }
 
 }
@@ -0,0 +1,55 @@
+package net.protolauncher.util;
+
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Limits how often requests can be made to a single endpoint by spacing them out by a minimum interval.
+ * <br/><br/>
+ * Every caller reserves the next free slot for its endpoint and waits until that slot comes around, so callers
+ * are let through in the order they arrived and endpoints never hold each other up.
+ */
+public class RateLimiter {
+
+    // Variables
+    private final long intervalNanos;
+    private final Map<String, Long> nextSlots = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new rate limiter.
+     *
+     * @param interval The minimum time between two requests to the same endpoint.
+     */
+    public RateLimiter(Duration interval) {
+        this.intervalNanos = interval.toNanos();
+    }
+
+    // Getters
+    public Duration getInterval() {
+        return Duration.ofNanos(intervalNanos);
+    }
+
+    /**
+     * Waits until a request can be made to the given endpoint.
+     *
+     * @param endpoint The endpoint, like the host of the request.
+     * @throws InterruptedIOException Thrown if the thread is interrupted while waiting.
+     */
+    public void acquire(String endpoint) throws InterruptedIOException {
+        long now = System.nanoTime();
+        long slot = nextSlots.merge(endpoint, now + intervalNanos, (next, ignored) -> Math.max(next, now) + intervalNanos) - intervalNanos;
+        long wait = slot - now;
+        if (wait <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to make a request to " + endpoint + "!");
+        }
+    }
+
+}
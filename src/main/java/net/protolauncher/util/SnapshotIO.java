@@ -0,0 +1,196 @@
+package net.protolauncher.util;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Helpers for writing parsed objects in a compact binary form and reading them back, for snapshots.
+ * <br/><br/>
+ * Objects write their own fields in a fixed order, so reading them back is just filling in fields, with no keys to
+ * look up and nothing to reflect on. Anything that may be null is written with a flag in front of it, and lists and
+ * maps are written with their size in front of them (or -1 if they are null), so they are read at their exact size.
+ */
+public class SnapshotIO {
+
+    // Suppress default constructor
+    private SnapshotIO() { }
+
+    /**
+     * Writes a string that may be null.
+     *
+     * @param out The output to write to.
+     * @param value The string to write.
+     * @throws IOException Thrown if writing fails.
+     */
+    public static void writeString(DataOutput out, @Nullable String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    /**
+     * Reads a string written by {@link SnapshotIO#writeString(DataOutput, String)}.
+     *
+     * @param in The input to read from.
+     * @return The string, or null if it was null.
+     * @throws IOException Thrown if reading fails.
+     */
+    @Nullable
+    public static String readString(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    /**
+     * Writes a boolean that may be null as a single byte.
+     *
+     * @param out The output to write to.
+     * @param value The boolean to write.
+     * @throws IOException Thrown if writing fails.
+     */
+    public static void writeBoolean(DataOutput out, @Nullable Boolean value) throws IOException {
+        out.writeByte(value == null ? -1 : value ? 1 : 0);
+    }
+
+    /**
+     * Reads a boolean written by {@link SnapshotIO#writeBoolean(DataOutput, Boolean)}.
+     *
+     * @param in The input to read from.
+     * @return The boolean, or null if it was null.
+     * @throws IOException Thrown if reading fails.
+     */
+    @Nullable
+    public static Boolean readBoolean(DataInput in) throws IOException {
+        byte value = in.readByte();
+        return value < 0 ? null : value == 1;
+    }
+
+    /**
+     * Writes an object that may be null.
+     *
+     * @param out The output to write to.
+     * @param value The object to write.
+     * @param writer Writes the object if it isn't null.
+     * @throws IOException Thrown if writing fails.
+     */
+    public static <T> void writeNullable(DataOutput out, @Nullable T value, Writer<T> writer) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            writer.write(out, value);
+        }
+    }
+
+    /**
+     * Reads an object written by {@link SnapshotIO#writeNullable(DataOutput, Object, Writer)}.
+     *
+     * @param in The input to read from.
+     * @param reader Reads the object if it isn't null.
+     * @return The object, or null if it was null.
+     * @throws IOException Thrown if reading fails.
+     */
+    @Nullable
+    public static <T> T readNullable(DataInput in, Reader<T> reader) throws IOException {
+        return in.readBoolean() ? reader.read(in) : null;
+    }
+
+    /**
+     * Writes a list that may be null.
+     *
+     * @param out The output to write to.
+     * @param list The list to write.
+     * @param writer Writes every item in the list.
+     * @throws IOException Thrown if writing fails.
+     */
+    public static <T> void writeList(DataOutput out, @Nullable List<T> list, Writer<T> writer) throws IOException {
+        out.writeInt(list != null ? list.size() : -1);
+        if (list != null) {
+            for (T item : list) {
+                writer.write(out, item);
+            }
+        }
+    }
+
+    /**
+     * Reads a list written by {@link SnapshotIO#writeList(DataOutput, List, Writer)}.
+     *
+     * @param in The input to read from.
+     * @param reader Reads every item in the list.
+     * @return The list, or null if it was null.
+     * @throws IOException Thrown if reading fails.
+     */
+    @Nullable
+    public static <T> ArrayList<T> readList(DataInput in, Reader<T> reader) throws IOException {
+        int size = in.readInt();
+        if (size < 0) {
+            return null;
+        }
+        ArrayList<T> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(reader.read(in));
+        }
+        return list;
+    }
+
+    /**
+     * Writes a map with string keys that may be null.
+     *
+     * @param out The output to write to.
+     * @param map The map to write.
+     * @param writer Writes every value in the map.
+     * @throws IOException Thrown if writing fails.
+     */
+    public static <V> void writeMap(DataOutput out, @Nullable Map<String, V> map, Writer<V> writer) throws IOException {
+        out.writeInt(map != null ? map.size() : -1);
+        if (map != null) {
+            for (Map.Entry<String, V> entry : map.entrySet()) {
+                out.writeUTF(entry.getKey());
+                writer.write(out, entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Reads a map written by {@link SnapshotIO#writeMap(DataOutput, Map, Writer)}.
+     *
+     * @param in The input to read from.
+     * @param reader Reads every value in the map.
+     * @return The map, or null if it was null.
+     * @throws IOException Thrown if reading fails.
+     */
+    @Nullable
+    public static <V> HashMap<String, V> readMap(DataInput in, Reader<V> reader) throws IOException {
+        int size = in.readInt();
+        if (size < 0) {
+            return null;
+        }
+        HashMap<String, V> map = new HashMap<>((int) (size / 0.75f) + 1);
+        for (int i = 0; i < size; i++) {
+            map.put(in.readUTF(), reader.read(in));
+        }
+        return map;
+    }
+
+    /**
+     * Writes a single value.
+     */
+    @FunctionalInterface
+    public interface Writer<T> {
+        void write(DataOutput out, T value) throws IOException;
+    }
+
+    /**
+     * Reads a single value.
+     */
+    @FunctionalInterface
+    public interface Reader<T> {
+        T read(DataInput in) throws IOException;
+    }
+
+}
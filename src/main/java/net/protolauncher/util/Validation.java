@@ -38,6 +38,20 @@ public class Validation {
         return filesha1.equalsIgnoreCase(sha1);
     }
 
+    /**
+     * Creates a new SHA1 {@link MessageDigest}.
+     *
+     * @return A new {@link MessageDigest}.
+     */
+    public static MessageDigest createSha1Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-1, so this should never happen
+            throw new IllegalStateException(e);
+        }
+    }
+
     /**
      * Creates a SHA1 code from the given path.
      *
@@ -46,21 +60,15 @@ public class Validation {
      * @throws IOException Thrown if any part of the SHA1 process goes wrong.
      */
     public static String createSha1(Path path) throws IOException  {
-        MessageDigest digest;
-        try {
-            digest = MessageDigest.getInstance("SHA-1");
-        } catch (NoSuchAlgorithmException e) {
-            e.printStackTrace();
-            System.exit(1);
-            return null;
-        }
-        InputStream fis = Files.newInputStream(path, StandardOpenOption.READ, LinkOption.NOFOLLOW_LINKS);
-        int n = 0;
-        byte[] buffer = new byte[8192];
-        while (n != -1) {
-            n = fis.read(buffer);
-            if (n > 0) {
-                digest.update(buffer, 0, n);
+        MessageDigest digest = createSha1Digest();
+        try (InputStream fis = Files.newInputStream(path, StandardOpenOption.READ, LinkOption.NOFOLLOW_LINKS)) {
+            int n = 0;
+            byte[] buffer = new byte[8192];
+            while (n != -1) {
+                n = fis.read(buffer);
+                if (n > 0) {
+                    digest.update(buffer, 0, n);
+                }
             }
         }
         return bytesToHex(digest.digest());
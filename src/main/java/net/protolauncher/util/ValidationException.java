@@ -0,0 +1,18 @@
+package net.protolauncher.util;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a file does not match the sha1 it was expected to have.
+ */
+public class ValidationException extends IOException {
+
+    // Constants
+    private static final long serialVersionUID = 1L;
+
+    // Constructor
+    public ValidationException(String message) {
+        super(message);
+    }
+
+}